@@ -2,6 +2,7 @@ import org.gradle.api.tasks.testing.logging.TestLogEvent
 
 plugins {
     id("com.gradleup.shadow") version "8.3.5"
+    id("me.champeau.jmh") version "0.7.2"
     java
 }
 
@@ -37,6 +38,23 @@ tasks.withType<Test> {
     testLogging.showExceptions = true
 }
 
+// The generated benchmark harness is not held to the warnings policy of our own sources.
+tasks.named<JavaCompile>("jmhCompileGeneratedClasses") {
+    options.compilerArgs.remove("-Werror")
+}
+
+// Run with ./gradlew jmh, optionally narrowed with -PjmhIncludes=<regex>, from the project directory so that the
+// benchmarks find data/cities.tsv. Results are written as JSON for tracking over time.
+jmh {
+    jmhVersion = "1.37"
+    // Share the random fixtures of the tests rather than copying them into the benchmarks.
+    includeTests = true
+    includes = providers.gradleProperty("jmhIncludes").map { listOf(it) }.orElse(listOf())
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+}
+
 tasks.jar {
     manifest.attributes["Main-Class"] = "MapServer"
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package autocomplete;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to build each implementation from each dataset with a single call to
+ * {@link Autocomplete#addAll(java.util.Collection)}. Run with the {@code gc} profiler, as configured in the build, to
+ * also report the bytes allocated per build ({@code gc.alloc.rate.norm}), an upper bound on the memory footprint.
+ *
+ * @see AllMatchesBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AddAllBenchmark {
+    @Param({"SequentialSearch", "BinarySearch", "PackedBinarySearch", "TreeSet", "TernarySearchTree", "RadixTrie"})
+    public String implementation;
+
+    @Param({"cities", "places"})
+    public String dataset;
+
+    private List<String> terms;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        terms = new ArrayList<>(Workloads.terms(dataset).keySet());
+    }
+
+    @Benchmark
+    public Autocomplete addAll() {
+        Autocomplete autocomplete = Workloads.create(implementation);
+        autocomplete.addAll(terms);
+        return autocomplete;
+    }
+}
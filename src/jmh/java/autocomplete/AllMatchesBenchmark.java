@@ -0,0 +1,49 @@
+package autocomplete;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the average latency of {@link Autocomplete#allMatches(CharSequence)} for each implementation and dataset,
+ * cycling through prefixes of each length drawn from the dataset.
+ *
+ * @see AddAllBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AllMatchesBenchmark {
+    @Param({"SequentialSearch", "BinarySearch", "PackedBinarySearch", "TreeSet", "TernarySearchTree", "RadixTrie"})
+    public String implementation;
+
+    @Param({"cities", "places"})
+    public String dataset;
+
+    @Param({"1", "3", "6"})
+    public int prefixLength;
+
+    private Autocomplete autocomplete;
+    private String[] prefixes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        List<String> terms = new ArrayList<>(Workloads.terms(dataset).keySet());
+        autocomplete = Workloads.create(implementation);
+        autocomplete.addAll(terms);
+        prefixes = Workloads.prefixes(terms, prefixLength);
+    }
+
+    @Benchmark
+    public List<CharSequence> allMatches() {
+        next = (next + 1) & (Workloads.PREFIXES - 1);
+        return autocomplete.allMatches(prefixes[next]);
+    }
+}
@@ -0,0 +1,116 @@
+package autocomplete;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.CharBuffer;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the DNA suffix workload of {@code DNASearch}: building an index of every suffix of a random DNA sequence,
+ * and then counting all matches and streaming the first matches of patterns drawn from the sequence. Short patterns
+ * match thousands of suffixes and long patterns only a few.
+ *
+ * @see AllMatchesBenchmark
+ */
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class DnaSuffixBenchmark {
+    /**
+     * Maximum number of matches streamed per query, as printed by {@code DNASearch}.
+     */
+    private static final int MAX_MATCHES = 10;
+
+    /**
+     * A random DNA sequence and the index of its suffixes.
+     */
+    @State(Scope.Benchmark)
+    public static class Index {
+        @Param({"TreeSet", "SuffixArray", "FMIndex"})
+        public String implementation;
+
+        @Param({"1000000"})
+        public int length;
+
+        String text;
+        Autocomplete autocomplete;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            text = Workloads.randomDna(length);
+            autocomplete = build();
+        }
+
+        /**
+         * Builds the index of every suffix of the text.
+         */
+        Autocomplete build() {
+            return switch (implementation) {
+                case "TreeSet" -> {
+                    Autocomplete result = new TreeSetAutocomplete();
+                    result.addAll(suffixes());
+                    yield result;
+                }
+                case "SuffixArray" -> new SuffixArrayAutocomplete(text);
+                case "FMIndex" -> new FMIndex(text);
+                default -> throw new IllegalArgumentException("Unknown implementation: " + implementation);
+            };
+        }
+
+        /**
+         * Returns views of every suffix of the text.
+         */
+        List<CharSequence> suffixes() {
+            return new AbstractList<>() {
+                @Override
+                public CharSequence get(int index) {
+                    return CharBuffer.wrap(text, index, text.length());
+                }
+
+                @Override
+                public int size() {
+                    return text.length();
+                }
+            };
+        }
+    }
+
+    /**
+     * Patterns of one length drawn from the text of the index.
+     */
+    @State(Scope.Benchmark)
+    public static class Patterns {
+        @Param({"4", "8", "16"})
+        public int patternLength;
+
+        String[] patterns;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setup(Index index) {
+            patterns = Workloads.prefixes(index.suffixes(), patternLength);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public Autocomplete build(Index index) {
+        return index.build();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public void query(Index index, Patterns patterns, Blackhole blackhole) {
+        patterns.next = (patterns.next + 1) & (Workloads.PREFIXES - 1);
+        String pattern = patterns.patterns[patterns.next];
+        blackhole.consume(index.autocomplete.countMatches(pattern));
+        index.autocomplete.stream(pattern).limit(MAX_MATCHES).forEach(blackhole::consume);
+    }
+}
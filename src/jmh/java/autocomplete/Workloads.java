@@ -0,0 +1,90 @@
+package autocomplete;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Datasets and query prefixes shared by the autocomplete benchmarks.
+ */
+final class Workloads {
+    /**
+     * Number of query prefixes cycled through by each benchmark, a power of two.
+     */
+    static final int PREFIXES = 1024;
+
+    private Workloads() {
+    }
+
+    /**
+     * Returns an empty instance of the named implementation.
+     *
+     * @param implementation the simple class name of the implementation without the {@code Autocomplete} suffix.
+     * @return an empty instance.
+     */
+    static Autocomplete create(String implementation) {
+        return switch (implementation) {
+            case "SequentialSearch" -> new SequentialSearchAutocomplete();
+            case "BinarySearch" -> new BinarySearchAutocomplete();
+            case "PackedBinarySearch" -> new PackedBinarySearchAutocomplete();
+            case "TreeSet" -> new TreeSetAutocomplete();
+            case "TernarySearchTree" -> new TernarySearchTreeAutocomplete();
+            case "RadixTrie" -> new RadixTrieAutocomplete();
+            default -> throw new IllegalArgumentException("Unknown implementation: " + implementation);
+        };
+    }
+
+    /**
+     * Returns each term of the named dataset mapped to its weight: {@code cities} for {@code data/cities.tsv} or
+     * {@code places} for the {@code places.tsv} resource served by the map.
+     *
+     * @param dataset the name of the dataset.
+     * @return each term mapped to its weight, in file order.
+     * @throws IOException if the dataset cannot be read.
+     */
+    static Map<String, Integer> terms(String dataset) throws IOException {
+        try (InputStream stream = switch (dataset) {
+            case "cities" -> new FileInputStream("data/cities.tsv");
+            case "places" -> Objects.requireNonNull(Workloads.class.getClassLoader().getResourceAsStream("places.tsv"));
+            default -> throw new IllegalArgumentException("Unknown dataset: " + dataset);
+        }) {
+            Map<String, Integer> result = new LinkedHashMap<>();
+            Scanner input = new Scanner(stream);
+            while (input.hasNextLine()) {
+                Scanner line = new Scanner(input.nextLine()).useDelimiter("\t");
+                result.put(line.next(), line.nextInt());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Returns prefixes of the given length of terms chosen uniformly at random, so that common prefixes are queried
+     * more often. Short prefixes match many terms and long prefixes few, so the length controls the selectivity.
+     * Terms shorter than the length are used whole.
+     *
+     * @param terms  the terms to draw prefixes from.
+     * @param length the length of each prefix.
+     * @return {@link #PREFIXES} prefixes.
+     */
+    static String[] prefixes(List<? extends CharSequence> terms, int length) {
+        Random random = new Random(373);
+        String[] result = new String[PREFIXES];
+        for (int i = 0; i < result.length; i += 1) {
+            CharSequence term = terms.get(random.nextInt(terms.size()));
+            result[i] = term.subSequence(0, Math.min(length, term.length())).toString();
+        }
+        return result;
+    }
+
+    /**
+     * Returns a random DNA sequence of the given length from a fixed seed.
+     *
+     * @param length the number of bases.
+     * @return a random DNA sequence.
+     */
+    static String randomDna(int length) {
+        return Fixtures.randomDna(new Random(373), length);
+    }
+}
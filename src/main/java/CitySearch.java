@@ -1,12 +1,15 @@
 import autocomplete.Autocomplete;
-import autocomplete.TreeSetAutocomplete;
+import autocomplete.FstAutocomplete;
+import autocomplete.TernarySearchTreeAutocomplete;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
- * Search the world's cities.
+ * Search the world's cities. Given the path to an index built by {@link autocomplete.FstBuilder} from the cities
+ * dataset, memory-maps the index instead of parsing the dataset and building an index on every start.
  */
 public class CitySearch {
     /**
@@ -23,15 +26,27 @@ public class CitySearch {
     private static final String PATH = "data/cities.tsv";
 
     public static void main(String[] args) throws IOException {
+        if (args.length > 0) {
+            search(new FstAutocomplete(Path.of(args[0])));
+            return;
+        }
         Map<String, Integer> cities = new LinkedHashMap<>();
         Scanner input = new Scanner(new FileInputStream(PATH));
         for (int i = 0; i < MAX_CITIES && input.hasNextLine(); i += 1) {
             Scanner line = new Scanner(input.nextLine()).useDelimiter("\t");
             cities.put(line.next(), line.nextInt());
         }
-        Autocomplete autocomplete = new TreeSetAutocomplete();
-        autocomplete.addAll(cities.keySet());
+        Autocomplete autocomplete = new TernarySearchTreeAutocomplete();
+        autocomplete.addAll(cities);
+        search(autocomplete);
+    }
 
+    /**
+     * Answers queries from standard input with the number of matches and the heaviest matches.
+     *
+     * @param autocomplete the index weighted by city population.
+     */
+    private static void search(Autocomplete autocomplete) {
         Scanner stdin = new Scanner(System.in);
         System.out.print("Query: ");
         while (stdin.hasNextLine()) {
@@ -39,11 +54,9 @@ public class CitySearch {
             if (prefix.isEmpty()) {
                 System.exit(0);
             }
-            List<CharSequence> matches = autocomplete.allMatches(prefix);
-            System.out.println(matches.size() + " matches");
-            matches.sort(Comparator.comparingInt(cities::get).reversed());
-            for (int i = 0; i < Math.min(matches.size(), MAX_MATCHES); i += 1) {
-                System.out.println(matches.get(i));
+            System.out.println(autocomplete.countMatches(prefix) + " matches");
+            for (CharSequence match : autocomplete.topMatches(prefix, MAX_MATCHES)) {
+                System.out.println(match);
             }
             System.out.println();
             System.out.print("Query: ");
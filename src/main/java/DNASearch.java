@@ -1,15 +1,27 @@
 import autocomplete.Autocomplete;
+import autocomplete.FMIndex;
+import autocomplete.SuffixArrayAutocomplete;
 import autocomplete.TreeSetAutocomplete;
+import dna.KmerIndex;
+import dna.PackedDnaSequence;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.AbstractCollection;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Scanner;
 
 /**
- * Search DNA by autocompleting across all suffixes.
+ * Search DNA by autocompleting across all suffixes. The optional argument selects the index: {@code suffixarray}
+ * (the default) for a {@link SuffixArrayAutocomplete}, {@code fmindex} for a compressed {@link FMIndex} that keeps
+ * well under one byte per base once built, although building it briefly needs a full suffix array, {@code treeset}
+ * for a {@link TreeSetAutocomplete} of every suffix, or {@code kmer} for a {@link KmerIndex} that also finds
+ * approximate matches: each query is a pattern optionally followed by the maximum number of mismatches, such as
+ * {@code GATTACAGATTACA 1}, and prints match positions. The second optional argument is the path to the DNA text, or
+ * to a {@code .2bit} file written by {@link PackedDnaSequence} to read the bases from a memory-mapped file instead of
+ * the heap.
  */
 public class DNASearch {
     /**
@@ -20,11 +32,36 @@ public class DNASearch {
      * Path to the DNA text.
      */
     private static final String PATH = "data/ecoli.txt";
+    /**
+     * Length of the k-mers in the k-mer index.
+     */
+    private static final int K = 10;
 
     public static void main(String[] args) throws IOException {
-        String dna = new Scanner(new FileInputStream(PATH)).next();
-        Autocomplete autocomplete = new TreeSetAutocomplete();
-        autocomplete.addAll(new SuffixCollection(dna));
+        String index = args.length > 0 ? args[0] : "suffixarray";
+        String path = args.length > 1 ? args[1] : PATH;
+        CharSequence dna;
+        if (path.endsWith(".2bit")) {
+            dna = PackedDnaSequence.open(Path.of(path));
+        } else {
+            dna = new Scanner(new FileInputStream(path)).next();
+        }
+        if (index.equals("kmer")) {
+            searchKmers(dna);
+            return;
+        }
+        long start = System.nanoTime();
+        Autocomplete autocomplete;
+        switch (index) {
+            case "suffixarray" -> autocomplete = new SuffixArrayAutocomplete(dna);
+            case "fmindex" -> autocomplete = new FMIndex(dna);
+            case "treeset" -> {
+                autocomplete = new TreeSetAutocomplete();
+                autocomplete.addAll(new SuffixCollection(dna));
+            }
+            default -> throw new IllegalArgumentException("Unknown index: " + index);
+        }
+        System.out.println("Indexed " + dna.length() + " bases in " + (System.nanoTime() - start) / 1_000_000 + " ms");
 
         Scanner stdin = new Scanner(System.in);
         System.out.print("Query: ");
@@ -33,14 +70,44 @@ public class DNASearch {
             if (prefix.isEmpty()) {
                 System.exit(0);
             }
-            List<CharSequence> matches = autocomplete.allMatches(prefix);
-            System.out.println(matches.size() + " matches");
-            for (int i = 0; i < Math.min(matches.size(), MAX_MATCHES); i += 1) {
-                CharSequence match = matches.get(i);
+            System.out.println(autocomplete.countMatches(prefix) + " matches");
+            autocomplete.stream(prefix).limit(MAX_MATCHES).forEach(match -> {
                 if (match.length() >= 97) {
                     match = match.subSequence(0, 97) + "...";
                 }
                 System.out.println(match);
+            });
+            System.out.println();
+            System.out.print("Query: ");
+        }
+    }
+
+    /**
+     * Indexes the k-mers of the given DNA and prints the positions of approximate matches of each query.
+     *
+     * @param dna the DNA to search.
+     */
+    private static void searchKmers(CharSequence dna) {
+        long start = System.nanoTime();
+        KmerIndex index = new KmerIndex(dna, K);
+        System.out.println("Indexed " + dna.length() + " bases in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+        Scanner stdin = new Scanner(System.in);
+        System.out.print("Query: ");
+        while (stdin.hasNextLine()) {
+            String[] query = stdin.nextLine().trim().split("\\s+");
+            if (query[0].isEmpty()) {
+                System.exit(0);
+            }
+            try {
+                int mismatches = query.length > 1 ? Integer.parseInt(query[1]) : 0;
+                int[] positions = index.search(query[0], mismatches);
+                System.out.println(positions.length + " matches");
+                for (int position : Arrays.copyOf(positions, Math.min(positions.length, MAX_MATCHES))) {
+                    System.out.println(position + ": " + dna.subSequence(position, position + query[0].length()));
+                }
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
             }
             System.out.println();
             System.out.print("Query: ");
@@ -0,0 +1,348 @@
+import com.sun.net.httpserver.HttpServer;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drive reproducible load against a running {@link MapServer} and report throughput and latency percentiles for each
+ * endpoint. Each of the concurrent clients sends one request at a time (closed loop). When an arrival rate is given,
+ * requests are scheduled at that rate and latency is measured from the scheduled time rather than the send time, so
+ * that a stalled server is not hidden by clients that stop sending while they wait.
+ * <p>
+ * Requests are either synthetic, mixing {@code /search} prefixes of place names from the places TSV with
+ * {@code /map} requests for random routes around Seattle, or replayed from a request log recorded by
+ * {@link MapServer} with the {@code REQUEST_LOG} environment variable. Replayed requests keep their recorded spacing
+ * unless an arrival rate is given. The server appends to the log across restarts, so pauses longer than the
+ * {@code gap} option, such as the time between two server runs, are shortened to that gap. To keep Mapbox out of the
+ * measurements, start a local image stub with the {@code stub} option and run the server with {@code MAPBOX_URL}
+ * pointing to it.
+ * <p>
+ * Options are given as {@code name=value} arguments:
+ * <pre>
+ * url=http://localhost:8080  base URL of the server
+ * concurrency=8              number of concurrent clients
+ * rate=0                     target arrival rate in requests per second, or 0 for as fast as possible
+ * requests=10000             number of synthetic requests
+ * search=0.8                 fraction of synthetic requests that are searches rather than maps
+ * replay=                    path to a request log to replay instead of synthetic requests
+ * speed=1                    replay speedup factor applied to recorded request spacing
+ * gap=60                     longest recorded pause in seconds to replay, so that appended runs play back to back
+ * stub=0                     port for a local image stub, or 0 for no stub
+ * places=places.tsv          path to the places TSV for synthetic search terms
+ * seed=373                   seed for synthetic requests
+ * timeout=30                 seconds to wait for each response before counting it as an error
+ * </pre>
+ *
+ * @see MapServer
+ */
+public class LoadGenerator {
+    /**
+     * Bounds of the random coordinates for synthetic map requests: {south, north, west, east}.
+     */
+    private static final double[] SEATTLE = {47.50, 47.75, -122.45, -122.25};
+    /**
+     * Maximum time to wait for the server to report ready.
+     */
+    private static final Duration READY_TIMEOUT = Duration.ofMinutes(10);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair.length != 2) {
+                System.err.println("Expected name=value but got " + arg);
+                System.exit(1);
+            }
+            options.put(pair[0], pair[1]);
+        }
+        String url = options.getOrDefault("url", "http://localhost:8080");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "8"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+        int stub = Integer.parseInt(options.getOrDefault("stub", "0"));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout", "30")));
+
+        List<String> paths = new ArrayList<>();
+        long[] offsets;
+        if (options.containsKey("replay")) {
+            offsets = replay(Path.of(options.get("replay")), paths,
+                    Double.parseDouble(options.getOrDefault("speed", "1")),
+                    Duration.ofSeconds(Long.parseLong(options.getOrDefault("gap", "60"))));
+        } else {
+            synthetic(paths,
+                    Integer.parseInt(options.getOrDefault("requests", "10000")),
+                    Double.parseDouble(options.getOrDefault("search", "0.8")),
+                    options.getOrDefault("places", "places.tsv"),
+                    Long.parseLong(options.getOrDefault("seed", "373")));
+            offsets = null;
+        }
+        if (rate > 0) {
+            offsets = new long[paths.size()];
+            for (int i = 0; i < offsets.length; i += 1) {
+                offsets[i] = (long) (i * 1e9 / rate);
+            }
+        }
+
+        HttpServer server = stub > 0 ? startStub(stub) : null;
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        awaitReady(client, url);
+        run(client, url, paths, offsets, concurrency, timeout);
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Sends the given requests from the given number of concurrent clients and prints a summary per endpoint.
+     *
+     * @param client      the HTTP client.
+     * @param url         the base URL of the server.
+     * @param paths       the request paths including query strings.
+     * @param offsets     the scheduled send time of each request in nanoseconds from the start, or null to send
+     *                    requests as soon as a client is free.
+     * @param concurrency the number of concurrent clients.
+     * @param timeout     the maximum time to wait for each response, after which the request counts as an error.
+     * @throws InterruptedException if interrupted while waiting for clients to finish.
+     */
+    private static void run(HttpClient client, String url, List<String> paths, long[] offsets, int concurrency,
+                            Duration timeout) throws InterruptedException {
+        long[] latencies = new long[paths.size()];
+        boolean[] errors = new boolean[paths.size()];
+        boolean[] timeouts = new boolean[paths.size()];
+        AtomicInteger next = new AtomicInteger();
+        long start = System.nanoTime();
+        Thread[] clients = new Thread[concurrency];
+        for (int c = 0; c < concurrency; c += 1) {
+            clients[c] = new Thread(() -> {
+                for (int i = next.getAndIncrement(); i < paths.size(); i = next.getAndIncrement()) {
+                    long scheduled = System.nanoTime();
+                    if (offsets != null) {
+                        scheduled = start + offsets[i];
+                        long wait = scheduled - System.nanoTime();
+                        if (wait > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                    }
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(url + paths.get(i)))
+                            .timeout(timeout)
+                            .build();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        errors[i] = response.statusCode() >= 400;
+                    } catch (HttpTimeoutException e) {
+                        // A stalled response frees the client after the timeout rather than holding it forever.
+                        errors[i] = true;
+                        timeouts[i] = true;
+                    } catch (IOException e) {
+                        errors[i] = true;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    latencies[i] = System.nanoTime() - scheduled;
+                }
+            }, "load-" + c);
+            clients[c].start();
+        }
+        for (Thread thread : clients) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%-10s %10s %8s %8s %12s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "timeouts", "throughput", "p50 ms", "p99 ms", "p999 ms");
+        for (String endpoint : new String[]{"/search", "/map", "all"}) {
+            List<Long> samples = new ArrayList<>();
+            int failed = 0;
+            int timedOut = 0;
+            for (int i = 0; i < paths.size(); i += 1) {
+                if (endpoint.equals("all") || paths.get(i).startsWith(endpoint)) {
+                    samples.add(latencies[i]);
+                    if (errors[i]) {
+                        failed += 1;
+                    }
+                    if (timeouts[i]) {
+                        timedOut += 1;
+                    }
+                }
+            }
+            long[] sorted = samples.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf(Locale.ROOT, "%-10s %10d %8d %8d %10.1f/s %10.2f %10.2f %10.2f%n",
+                    endpoint, sorted.length, failed, timedOut, sorted.length / seconds,
+                    MapBenchmark.percentile(sorted, 0.5) / 1e6,
+                    MapBenchmark.percentile(sorted, 0.99) / 1e6,
+                    MapBenchmark.percentile(sorted, 0.999) / 1e6);
+        }
+    }
+
+    /**
+     * Adds synthetic search and map request paths drawn from the places TSV and random Seattle coordinates.
+     *
+     * @param paths      the list for the generated request paths.
+     * @param requests   the number of requests to generate.
+     * @param search     the fraction of requests that are searches.
+     * @param placesPath the path to the places TSV.
+     * @param seed       the seed for random choices.
+     * @throws IOException if the places TSV cannot be read.
+     * @throws IllegalArgumentException if the places TSV has no place names.
+     */
+    private static void synthetic(List<String> paths, int requests, double search, String placesPath, long seed)
+            throws IOException {
+        List<String> names = new ArrayList<>();
+        try (Scanner input = new Scanner(MapGraph.fileStream(placesPath))) {
+            while (input.hasNextLine()) {
+                String name = input.nextLine().split("\t", 2)[0];
+                // Blank names and lines have no prefixes to search for.
+                if (!name.isBlank()) {
+                    names.add(name);
+                }
+            }
+        }
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("No place names in " + placesPath);
+        }
+        Random random = new Random(seed);
+        for (int i = 0; i < requests; i += 1) {
+            String name = names.get(random.nextInt(names.size()));
+            if (random.nextDouble() < search) {
+                String prefix = name.substring(0, 1 + random.nextInt(name.length()));
+                paths.add("/search?term=" + URLEncoder.encode(prefix, StandardCharsets.UTF_8));
+            } else {
+                String path = String.format(Locale.ROOT,
+                        "/map/%f,%f,%d/%dx%d?startLon=%f&startLat=%f&goalLon=%f&goalLat=%f",
+                        randomLon(random), randomLat(random), 13 + random.nextInt(4), 1280, 800,
+                        randomLon(random), randomLat(random), randomLon(random), randomLat(random));
+                if (random.nextBoolean()) {
+                    path += "&term=" + URLEncoder.encode(name, StandardCharsets.UTF_8);
+                }
+                paths.add(path);
+            }
+        }
+    }
+
+    /**
+     * Adds the request paths from a request log in order of arrival and returns their recorded spacing. Each line of
+     * the log is either a request path or a millisecond arrival timestamp and a request path separated by a tab. The
+     * server writes each line when its request completes, so lines are sorted by timestamp before replaying.
+     * Pauses longer than the given gap are shortened to it, so that logs appended by several server runs replay back
+     * to back rather than hours apart.
+     *
+     * @param log    the path to the request log.
+     * @param paths  the list for the replayed request paths.
+     * @param speed  the factor by which to shorten the recorded spacing between requests.
+     * @param maxGap the longest pause between consecutive requests to replay.
+     * @return the scheduled send time of each request in nanoseconds from the start, in ascending order, or null if
+     * the log has no timestamps.
+     * @throws IOException if the log cannot be read.
+     */
+    static long[] replay(Path log, List<String> paths, double speed, Duration maxGap) throws IOException {
+        List<String> untimed = new ArrayList<>();
+        List<Map.Entry<Long, String>> timed = new ArrayList<>();
+        for (String line : Files.readAllLines(log, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            int tab = line.indexOf('\t');
+            if (tab >= 0) {
+                timed.add(Map.entry(Long.parseLong(line.substring(0, tab)), line.substring(tab + 1)));
+            }
+            untimed.add(tab >= 0 ? line.substring(tab + 1) : line);
+        }
+        if (timed.size() != untimed.size() || timed.isEmpty()) {
+            paths.addAll(untimed);
+            return null;
+        }
+        // A stable sort keeps requests that arrived in the same millisecond in log order.
+        timed.sort(Map.Entry.comparingByKey());
+        long[] offsets = new long[timed.size()];
+        long elapsed = 0;
+        for (int i = 0; i < offsets.length; i += 1) {
+            if (i > 0) {
+                elapsed += Math.min(timed.get(i).getKey() - timed.get(i - 1).getKey(), maxGap.toMillis());
+            }
+            paths.add(timed.get(i).getValue());
+            offsets[i] = (long) (elapsed * 1e6 / speed);
+        }
+        return offsets;
+    }
+
+    /**
+     * Waits until the server reports ready, or returns immediately if it has no readiness endpoint.
+     *
+     * @param client the HTTP client.
+     * @param url    the base URL of the server.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private static void awaitReady(HttpClient client, String url) throws InterruptedException {
+        long deadline = System.nanoTime() + READY_TIMEOUT.toNanos();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/ready")).build();
+        while (System.nanoTime() < deadline) {
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status != 503) {
+                    return;
+                }
+            } catch (IOException e) {
+                // The server has not started listening yet.
+            }
+            Thread.sleep(1000);
+        }
+        throw new IllegalStateException("Server at " + url + " did not become ready");
+    }
+
+    /**
+     * Starts a local HTTP server that answers every request with a small PNG image in place of the static map API.
+     *
+     * @param port the port for the stub.
+     * @return the running stub server.
+     * @throws IOException if the stub cannot be started.
+     */
+    private static HttpServer startStub(int port) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB), "png", bytes);
+        byte[] png = bytes.toByteArray();
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().set("Content-Type", "image/png");
+            exchange.sendResponseHeaders(200, png.length);
+            exchange.getResponseBody().write(png);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "image-stub");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        System.out.println("Image stub listening on http://localhost:" + port + "/");
+        return server;
+    }
+
+    private static double randomLat(Random random) {
+        return SEATTLE[0] + random.nextDouble() * (SEATTLE[1] - SEATTLE[0]);
+    }
+
+    private static double randomLon(Random random) {
+        return SEATTLE[2] + random.nextDouble() * (SEATTLE[3] - SEATTLE[2]);
+    }
+}
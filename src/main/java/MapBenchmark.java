@@ -0,0 +1,130 @@
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.shape.Point;
+import org.locationtech.spatial4j.shape.ShapeFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Measure how {@link MapGraph} loading, snapping and routing scale with the size of the road network. For each
+ * requested size, generates a synthetic network with {@link OsmGenerator}, loads it, and runs random queries, printing
+ * one comma-separated row per size:
+ * <pre>
+ * nodes,loadMillis,heapMegabytes,closestP50Micros,closestP99Micros,routeP50Micros,routeP99Micros
+ * </pre>
+ * Heap usage is the difference in used heap after garbage collection before and after loading, so it approximates
+ * the memory retained by the graph. Run with a large maximum heap (for example {@code -Xmx16g}) for the largest sizes.
+ *
+ * @see OsmGenerator
+ */
+public class MapBenchmark {
+    /**
+     * Default network sizes in number of grid nodes.
+     */
+    private static final long[] SIZES = {10_000, 100_000, 1_000_000};
+    /**
+     * Default number of random queries per network size.
+     */
+    private static final int QUERIES = 20;
+
+    public static void main(String[] args) throws Exception {
+        int queries = QUERIES;
+        long[] sizes = SIZES;
+        if (args.length > 0) {
+            queries = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            sizes = Arrays.stream(args, 1, args.length).mapToLong(Long::parseLong).toArray();
+        }
+        Path directory = Files.createTempDirectory("huskymaps-benchmark");
+        System.out.println("nodes,loadMillis,heapMegabytes,closestP50Micros,closestP99Micros,"
+                + "routeP50Micros,routeP99Micros");
+        for (long size : sizes) {
+            run(new OsmGenerator(size, 373), directory, queries);
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Generates, loads and queries a single network, then prints its row of measurements.
+     *
+     * @param generator the generator for the network.
+     * @param directory the directory for the generated files.
+     * @param queries   the number of random queries.
+     * @throws Exception if the network cannot be written or loaded.
+     */
+    private static void run(OsmGenerator generator, Path directory, int queries) throws Exception {
+        Path osm = directory.resolve("synthetic.osm.gz");
+        Path places = directory.resolve("synthetic-places.tsv");
+        long nodes = generator.write(osm.toString(), places.toString());
+
+        SpatialContext context = SpatialContext.GEO;
+        ShapeFactory factory = context.getShapeFactory();
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        MapGraph map = new MapGraph(osm.toString(), places.toString(), context);
+        long loadMillis = (System.nanoTime() - start) / 1_000_000;
+        long heapMegabytes = (usedHeap() - heapBefore) >> 20;
+
+        Random random = new Random(373);
+        long[] closest = new long[queries];
+        long[] route = new long[queries];
+        for (int i = 0; i < queries; i += 1) {
+            Point from = randomPoint(generator, factory, random);
+            Point to = randomPoint(generator, factory, random);
+            start = System.nanoTime();
+            Point snappedFrom = map.closest(from);
+            Point snappedTo = map.closest(to);
+            closest[i] = (System.nanoTime() - start) / 2;
+            start = System.nanoTime();
+            map.shortestPath(snappedFrom, snappedTo);
+            route[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(closest);
+        Arrays.sort(route);
+        System.out.println(nodes + "," + loadMillis + "," + heapMegabytes
+                + "," + percentile(closest, 0.5) / 1000 + "," + percentile(closest, 0.99) / 1000
+                + "," + percentile(route, 0.5) / 1000 + "," + percentile(route, 0.99) / 1000);
+        Files.delete(osm);
+        Files.delete(places);
+    }
+
+    /**
+     * Returns a uniformly random point within the bounds of the generated network.
+     */
+    private static Point randomPoint(OsmGenerator generator, ShapeFactory factory, Random random) {
+        double lat = generator.minLat() + random.nextDouble() * (generator.maxLat() - generator.minLat());
+        double lon = generator.minLon() + random.nextDouble() * (generator.maxLon() - generator.minLon());
+        return factory.pointLatLon(lat, lon);
+    }
+
+    /**
+     * Returns the value at the given quantile of the sorted samples.
+     *
+     * @param sorted   the samples in ascending order.
+     * @param quantile the quantile between 0 and 1.
+     * @return the value at the given quantile, or 0 if there are no samples.
+     */
+    static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.min(Math.max(index, 0), sorted.length - 1)];
+    }
+
+    /**
+     * Returns the used heap in bytes after requesting garbage collection.
+     */
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i += 1) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
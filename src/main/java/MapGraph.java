@@ -1,20 +1,25 @@
-import autocomplete.Autocomplete;
-import autocomplete.TreeSetAutocomplete;
+import autocomplete.CachingAutocomplete;
+import autocomplete.NormalizedAutocomplete;
+import autocomplete.TernarySearchTreeAutocomplete;
+import autocomplete.TokenAutocomplete;
 import graphs.AStarGraph;
 import graphs.Edge;
 import graphs.shortestpaths.AStarSolver;
-import minpq.DoubleMapMinPQ;
 import org.locationtech.spatial4j.context.SpatialContext;
 import org.locationtech.spatial4j.shape.Point;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
+import profiling.AutocompleteQueryEvent;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.zip.GZIPInputStream;
 
@@ -25,13 +30,24 @@ import java.util.zip.GZIPInputStream;
  * @see MapServer
  */
 public class MapGraph implements AStarGraph<Point> {
+    /**
+     * Number of top matches cached for each search key, the most matches answered from the cache.
+     */
+    private static final int CACHE_DEPTH = 20;
+    /**
+     * Maximum number of search keys in the prefix cache.
+     */
+    private static final int CACHE_CAPACITY = 10_000;
     private final String osmPath;
     private final String placesPath;
     private final SpatialContext context;
     private final Map<Point, List<Edge<Point>>> neighbors;
     private final Map<String, List<Point>> locations;
-    private final Autocomplete autocomplete;
-    private final Map<CharSequence, Integer> importance;
+    private final TernarySearchTreeAutocomplete keys;
+    private final NormalizedAutocomplete autocomplete;
+    private final CachingAutocomplete cache;
+    private final TokenAutocomplete words;
+    private final CachingAutocomplete wordCache;
 
     /**
      * Constructs a new map graph from the path to an OSM GZ file and a places TSV.
@@ -68,29 +84,54 @@ public class MapGraph implements AStarGraph<Point> {
         SAXParser saxParser = SAXParserFactory.newInstance().newSAXParser();
         saxParser.parse(new GZIPInputStream(fileStream(osmPath)), handler);
 
-        // Add reachable locations to the Autocomplete engine.
         locations = handler.byName;
-        autocomplete = new TreeSetAutocomplete();
-        autocomplete.addAll(locations.keySet());
 
         // Parse the place-importance data.
-        importance = new HashMap<>();
+        Map<String, Integer> importance = new HashMap<>();
         try (Scanner input = new Scanner(fileStream(placesPath))) {
             while (input.hasNextLine()) {
                 Scanner line = new Scanner(input.nextLine()).useDelimiter("\t");
                 importance.put(line.next(), line.nextInt());
             }
         }
+
+        // Add reachable locations to the Autocomplete engine weighted by importance, searchable by folded keys.
+        Map<String, Integer> weights = new HashMap<>(locations.size());
+        for (String name : locations.keySet()) {
+            weights.put(name, importance.getOrDefault(name, 0));
+        }
+        keys = new TernarySearchTreeAutocomplete();
+        autocomplete = new NormalizedAutocomplete(keys);
+        autocomplete.addAll(weights);
+        // Share the top matches of popular prefixes across requests, keyed by folded prefix.
+        cache = new CachingAutocomplete(autocomplete, NormalizedAutocomplete::fold, CACHE_DEPTH, CACHE_CAPACITY);
+        // Also index every word of each name, so that a query can match words after the first.
+        words = new TokenAutocomplete();
+        words.addAll(weights);
+        // The word matches of a query are a subset of those of its prefixes, so they are cached the same way.
+        wordCache = new CachingAutocomplete(words, NormalizedAutocomplete::fold, TokenAutocomplete::matches,
+                CACHE_DEPTH, CACHE_CAPACITY);
     }
 
     /**
-     * Returns an input stream from the contents of the file at the given path.
+     * Returns an input stream from the contents of the file at the given path. A file at the path relative to the
+     * working directory takes precedence over a classpath resource so that data files can be replaced and reloaded
+     * without rebuilding the application.
      *
      * @param path a file path.
      * @return an input stream with the contents of the specified file.
+     * @throws IOException if the file is not found.
      */
-    private static InputStream fileStream(String path) {
-        return Thread.currentThread().getContextClassLoader().getResourceAsStream(path);
+    static InputStream fileStream(String path) throws IOException {
+        Path file = Path.of(path);
+        if (Files.isRegularFile(file)) {
+            return Files.newInputStream(file);
+        }
+        InputStream result = Thread.currentThread().getContextClassLoader().getResourceAsStream(path);
+        if (result == null) {
+            throw new FileNotFoundException(path);
+        }
+        return result;
     }
 
     /**
@@ -108,19 +149,61 @@ public class MapGraph implements AStarGraph<Point> {
     }
 
     /**
-     * Return up to the given number of location names that match the prefix string by greatest importance.
+     * Return up to the given number of location names that match the prefix string by greatest importance. Names
+     * starting with the prefix come first, followed by names containing a word starting with each word of the prefix,
+     * such as "pizza" for "The Northlake Tavern &amp; Pizza House". If neither finds a name, falls back to names that
+     * start within a small edit distance of the prefix to tolerate typos.
      *
      * @param prefix prefix string that could be any case with or without punctuation.
      * @param maxMatches the maximum number of results to return.
      * @return a list of full names of locations matching the prefix.
      */
     public List<CharSequence> getLocationsByPrefix(String prefix, int maxMatches) {
-        List<CharSequence> matches = autocomplete.allMatches(prefix);
-        Map<CharSequence, Double> elementsAndPriorities = new HashMap<>(matches.size());
-        for (CharSequence match : matches) {
-            elementsAndPriorities.put(match, (double) importance.get(match));
+        AutocompleteQueryEvent event = new AutocompleteQueryEvent();
+        event.begin();
+        List<CharSequence> result = prefix == null ? List.of() : cache.topMatches(prefix, maxMatches);
+        int prefixMatches = result.size();
+        if (prefix != null && result.size() < maxMatches) {
+            Set<CharSequence> merged = new LinkedHashSet<>(result);
+            // Even if every prefix match is among them, maxMatches word matches leave enough new names to fill it.
+            for (CharSequence name : wordCache.topMatches(prefix, maxMatches)) {
+                if (merged.size() < maxMatches) {
+                    merged.add(name);
+                }
+            }
+            result = new ArrayList<>(merged);
+        }
+        String key = prefix == null ? "" : NormalizedAutocomplete.fold(prefix);
+        boolean fuzzy = result.isEmpty() && maxEdits(key.length()) > 0;
+        if (fuzzy) {
+            result = autocomplete.resolve(keys.fuzzyTopMatches(key, maxEdits(key.length()), maxMatches), maxMatches);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.implementation = autocomplete.getClass().getSimpleName();
+            event.prefixLength = prefix == null ? 0 : prefix.length();
+            event.matchCount = result.size();
+            event.wordMatchCount = fuzzy ? 0 : result.size() - prefixMatches;
+            event.fuzzy = fuzzy;
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of typos tolerated in a prefix of the given length. Very short prefixes are matched exactly
+     * since almost any name is within one edit of them, and longer prefixes tolerate up to two edits.
+     *
+     * @param length the length of the prefix.
+     * @return the maximum edit distance for fuzzy matching.
+     */
+    private static int maxEdits(int length) {
+        if (length <= 2) {
+            return 0;
+        } else if (length <= 5) {
+            return 1;
         }
-        return new DoubleMapMinPQ<>(elementsAndPriorities).removeMin(maxMatches);
+        return 2;
     }
 
     /**
@@ -0,0 +1,159 @@
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Read-copy-update holder for the current {@link MapGraph}. Requests {@link #acquire()} the current generation and
+ * close it when they finish, while {@link #reload()} builds a new generation on a background thread and atomically
+ * swaps it in. In-flight requests finish on the generation they acquired, and a new reload cannot begin until every
+ * reader of the replaced generation has finished, so at most two generations are ever reachable.
+ *
+ * @see MapGraph
+ * @see MapServer
+ */
+public class MapReloader {
+    /**
+     * How long to sleep between checks for readers of a replaced generation.
+     */
+    private static final long GRACE_POLL_MILLIS = 10;
+    /**
+     * The loader for building a new {@link MapGraph} from the current data files.
+     */
+    private final Callable<MapGraph> loader;
+    /**
+     * The generation that new requests acquire.
+     */
+    private final AtomicReference<Generation> current;
+    /**
+     * Whether a reload is building a new generation or waiting for readers of the replaced generation.
+     */
+    private final AtomicBoolean reloading;
+
+    /**
+     * Constructs an instance by loading the first generation on the calling thread.
+     *
+     * @param loader the loader for building a new {@link MapGraph} from the current data files.
+     * @throws Exception if the first generation cannot be loaded.
+     */
+    public MapReloader(Callable<MapGraph> loader) throws Exception {
+        this.loader = loader;
+        this.current = new AtomicReference<>(new Generation(loader.call(), 0));
+        this.reloading = new AtomicBoolean(false);
+    }
+
+    /**
+     * Returns the current generation, which the caller must close when it no longer uses the map.
+     *
+     * @return the current generation.
+     */
+    public Generation acquire() {
+        while (true) {
+            Generation generation = current.get();
+            generation.readers.incrementAndGet();
+            // A reload may have swapped and started waiting for readers before the increment was visible to it, in
+            // which case retry on the newer generation rather than extend the grace period of the replaced one.
+            if (current.get() == generation) {
+                return generation;
+            }
+            generation.close();
+        }
+    }
+
+    /**
+     * Starts building a new generation on a background thread unless a reload is already in progress.
+     *
+     * @return true if and only if a new reload was started.
+     */
+    public boolean reload() {
+        if (!reloading.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                Generation previous = current.get();
+                long start = System.nanoTime();
+                Generation next = new Generation(loader.call(), previous.number + 1);
+                current.set(next);
+                System.out.println("Loaded map generation " + next.number + " in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+                // Grace period: wait for in-flight requests on the previous generation so that it can be collected.
+                while (previous.readers.get() > 0) {
+                    Thread.sleep(GRACE_POLL_MILLIS);
+                }
+            } catch (Exception e) {
+                System.err.println("Map reload failed, keeping generation " + current.get().number + ": " + e);
+            } finally {
+                reloading.set(false);
+            }
+        }, "map-reload");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    /**
+     * Returns the number of the current generation, starting from 0 for the first generation.
+     *
+     * @return the number of the current generation.
+     */
+    public int generation() {
+        return current.get().number;
+    }
+
+    /**
+     * Returns whether a reload is building a new generation or waiting for readers of the replaced generation.
+     *
+     * @return true if and only if a reload is in progress.
+     */
+    public boolean reloading() {
+        return reloading.get();
+    }
+
+    /**
+     * A loaded {@link MapGraph} and the number of requests currently reading it.
+     */
+    public static class Generation implements AutoCloseable {
+        private final MapGraph map;
+        private final int number;
+        private final AtomicInteger readers;
+
+        /**
+         * Constructs a generation with no readers.
+         *
+         * @param map    the loaded map.
+         * @param number the sequence number of this generation.
+         */
+        private Generation(MapGraph map, int number) {
+            this.map = map;
+            this.number = number;
+            this.readers = new AtomicInteger();
+        }
+
+        /**
+         * Returns the map for this generation.
+         *
+         * @return the map for this generation.
+         */
+        public MapGraph map() {
+            return map;
+        }
+
+        /**
+         * Returns the sequence number of this generation, starting from 0 for the first generation.
+         *
+         * @return the sequence number of this generation.
+         */
+        public int number() {
+            return number;
+        }
+
+        /**
+         * Releases this generation so that a pending reload can finish its grace period.
+         */
+        @Override
+        public void close() {
+            readers.decrementAndGet();
+        }
+    }
+}
@@ -1,18 +1,44 @@
 import io.javalin.Javalin;
+import io.javalin.http.ConflictResponse;
+import io.javalin.http.Context;
+import io.javalin.http.ForbiddenResponse;
+import io.javalin.http.Handler;
+import io.javalin.http.HttpStatus;
+import io.javalin.http.ServiceUnavailableResponse;
 import io.javalin.validation.ValidationException;
+import metrics.MetricsRegistry;
+import metrics.ServerTiming;
 import org.apache.commons.codec.binary.Base64InputStream;
 import org.locationtech.spatial4j.context.SpatialContext;
 import org.locationtech.spatial4j.shape.Point;
 import org.locationtech.spatial4j.shape.ShapeFactory;
 
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.PrintWriter;
 import java.net.*;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Run the Husky Maps server.
+ * Run the Husky Maps server. Before serving map and search requests, the server replays a synthetic workload from
+ * {@link MapWarmup} so that the first requests after a deploy do not run interpreted code. The number of warm-up routes
+ * and searches can be configured with the {@code WARMUP_ROUTES} and {@code WARMUP_SEARCHES} environment variables.
+ * <p>
+ * If the {@code RELOAD_TOKEN} environment variable is set, a {@code POST /reload} request bearing that token rebuilds
+ * the map from the current data files in the background and swaps it in without interrupting in-flight requests.
+ * <p>
+ * For load testing, the {@code MAPBOX_URL} environment variable replaces the static map image API with a local stub,
+ * and the {@code REQUEST_LOG} environment variable names a file for recording requests that {@link LoadGenerator} can
+ * replay. Each run appends to the file, and replay shortens the pauses between runs.
  *
  * @see MapGraph
+ * @see MapReloader
+ * @see MapWarmup
+ * @see LoadGenerator
+ * @see MetricsRegistry
  */
 public class MapServer {
     /**
@@ -29,19 +55,78 @@ public class MapServer {
      * The place-importance TSV data file path from OpenStreetMap.
      */
     private static final String PLACES_PATH = "places.tsv";
+    /**
+     * Default base URL for the static map image API, which can be replaced with a local stub for load testing.
+     *
+     * @see LoadGenerator
+     */
+    private static final String MAPBOX_URL = "https://api.mapbox.com/";
     /**
      * Maximum number of autocomplete search results.
      */
-    private static final int MAX_MATCHES = 10;
+    static final int MAX_MATCHES = 10;
+    /**
+     * Default number of random routes to replay before reporting ready.
+     */
+    private static final int WARMUP_ROUTES = 100;
+    /**
+     * Default number of random searches to replay before reporting ready.
+     */
+    private static final int WARMUP_SEARCHES = 20000;
+    /**
+     * Request attribute holding the arrival time in milliseconds of a request recorded in the request log.
+     */
+    private static final String ARRIVAL_ATTRIBUTE = "arrival";
 
     public static void main(String[] args) throws Exception {
         SpatialContext context = SpatialContext.GEO;
         ShapeFactory factory = context.getShapeFactory();
-        MapGraph map = new MapGraph(OSM_DB_PATH, PLACES_PATH, context);
+        MetricsRegistry metrics = new MetricsRegistry();
+        MapReloader maps = new MapReloader(() -> new MapGraph(OSM_DB_PATH, PLACES_PATH, context));
+        AtomicBoolean ready = new AtomicBoolean(false);
         Javalin app = Javalin.create(config -> {
             config.spaRoot.addFile("/", "index.html");
         }).start(port());
-        app.get("/map/{lon},{lat},{zoom}/{width}x{height}", ctx -> {
+        app.get("/ready", ctx -> {
+            if (ready.get()) {
+                ctx.result("ready");
+            } else {
+                ctx.status(HttpStatus.SERVICE_UNAVAILABLE).result("warming up");
+            }
+        });
+        String requestLog = System.getenv("REQUEST_LOG");
+        if (requestLog != null) {
+            PrintWriter log = new PrintWriter(new BufferedWriter(new FileWriter(requestLog, true)));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                synchronized (log) {
+                    log.close();
+                }
+            }));
+            // Registered before the readiness check so that rejected requests are also stamped with their arrival.
+            Handler arrive = ctx -> ctx.attribute(ARRIVAL_ATTRIBUTE, System.currentTimeMillis());
+            Handler record = ctx -> {
+                String query = ctx.queryString();
+                Long arrival = ctx.attribute(ARRIVAL_ATTRIBUTE);
+                String line = arrival + "\t" + ctx.path() + (query == null ? "" : "?" + query);
+                // Flush every line so that the log survives a crash and can be tailed while the server runs.
+                synchronized (log) {
+                    log.println(line);
+                    log.flush();
+                }
+            };
+            app.before("/map/*", arrive);
+            app.before("/search", arrive);
+            app.after("/map/*", record);
+            app.after("/search", record);
+        }
+        Handler rejectUntilReady = ctx -> {
+            if (!ready.get()) {
+                throw new ServiceUnavailableResponse("warming up");
+            }
+        };
+        app.before("/map/*", rejectUntilReady);
+        app.before("/search", rejectUntilReady);
+        app.get("/map/{lon},{lat},{zoom}/{width}x{height}", timed(metrics, "/map", (ctx, timing) -> {
             double lon = ctx.pathParamAsClass("lon", Double.class).get();
             double lat = ctx.pathParamAsClass("lat", Double.class).get();
             int zoom = ctx.pathParamAsClass("zoom", Integer.class).get();
@@ -51,24 +136,108 @@ public class MapServer {
 
             Point center = factory.pointLatLon(lat, lon);
             List<Point> route;
-            try {
-                double startLon = ctx.queryParamAsClass("startLon", Double.class).get();
-                double startLat = ctx.queryParamAsClass("startLat", Double.class).get();
-                double goalLon = ctx.queryParamAsClass("goalLon", Double.class).get();
-                double goalLat = ctx.queryParamAsClass("goalLat", Double.class).get();
-                Point start = factory.pointLatLon(startLat, startLon);
-                Point goal = factory.pointLatLon(goalLat, goalLon);
-                route = map.shortestPath(start, goal);
-            } catch (ValidationException e) {
-                route = List.of();
+            List<Point> locations;
+            try (MapReloader.Generation generation = maps.acquire()) {
+                MapGraph map = generation.map();
+                try {
+                    double startLon = ctx.queryParamAsClass("startLon", Double.class).get();
+                    double startLat = ctx.queryParamAsClass("startLat", Double.class).get();
+                    double goalLon = ctx.queryParamAsClass("goalLon", Double.class).get();
+                    double goalLat = ctx.queryParamAsClass("goalLat", Double.class).get();
+                    long start = timing.start();
+                    Point from = map.closest(factory.pointLatLon(startLat, startLon));
+                    Point to = map.closest(factory.pointLatLon(goalLat, goalLon));
+                    timing.stop("closest", start);
+                    start = timing.start();
+                    route = map.shortestPath(from, to);
+                    timing.stop("astar", start);
+                } catch (ValidationException e) {
+                    route = List.of();
+                }
+                long start = timing.start();
+                locations = map.getLocations(term);
+                timing.stop("locations", start);
             }
-            List<Point> locations = map.getLocations(term);
             URL staticImageURL = url(center, zoom, width, height, route, locations);
+            // Only measures connecting and receiving headers: the body is streamed after the handler returns.
+            long start = timing.start();
             ctx.result(new Base64InputStream(staticImageURL.openStream(), true));
+            timing.stop("image", start);
+        }));
+        app.get("/search", timed(metrics, "/search", (ctx, timing) -> {
+            List<CharSequence> result;
+            try (MapReloader.Generation generation = maps.acquire()) {
+                long start = timing.start();
+                result = generation.map().getLocationsByPrefix(ctx.queryParam("term"), MAX_MATCHES);
+                timing.stop("autocomplete", start);
+            }
+            ctx.json(result);
+        }));
+        app.get("/metrics", ctx -> {
+            ctx.contentType("text/plain; version=0.0.4; charset=utf-8");
+            ctx.result(metrics.scrape());
         });
-        app.get("/search", ctx -> {
-            ctx.json(map.getLocationsByPrefix(ctx.queryParam("term"), MAX_MATCHES));
-        });
+        String reloadToken = System.getenv("RELOAD_TOKEN");
+        if (reloadToken != null) {
+            app.post("/reload", ctx -> {
+                byte[] expected = ("Bearer " + reloadToken).getBytes(StandardCharsets.UTF_8);
+                String actual = ctx.header("Authorization");
+                if (actual == null || !MessageDigest.isEqual(expected, actual.getBytes(StandardCharsets.UTF_8))) {
+                    throw new ForbiddenResponse();
+                }
+                if (!maps.reload()) {
+                    throw new ConflictResponse("reload already in progress");
+                }
+                ctx.status(HttpStatus.ACCEPTED).result("reloading from generation " + maps.generation());
+            });
+        }
+
+        int routes = env("WARMUP_ROUTES", WARMUP_ROUTES);
+        int searches = env("WARMUP_SEARCHES", WARMUP_SEARCHES);
+        long millis;
+        try (MapReloader.Generation generation = maps.acquire()) {
+            millis = new MapWarmup(generation.map(), PLACES_PATH).run(routes, searches);
+        }
+        System.out.println("Warmed up with " + routes + " routes and " + searches + " searches in " + millis + " ms");
+        ready.set(true);
+    }
+
+    /**
+     * Returns a handler that measures the given handler, counts requests, and adds a {@code Server-Timing} header.
+     *
+     * @param metrics  the registry for recording request metrics.
+     * @param endpoint the endpoint label for recorded metrics.
+     * @param handler  the handler to measure.
+     * @return a handler that measures the given handler.
+     */
+    private static Handler timed(MetricsRegistry metrics, String endpoint, TimedHandler handler) {
+        return ctx -> {
+            ServerTiming timing = new ServerTiming(metrics, endpoint);
+            long start = timing.start();
+            try {
+                handler.handle(ctx, timing);
+            } finally {
+                timing.stop("total", start);
+                ctx.header("Server-Timing", timing.toString());
+                metrics.counter("huskymaps_requests_total", "Total number of requests handled.",
+                        "endpoint", endpoint).increment();
+            }
+        };
+    }
+
+    /**
+     * Request handler that records its stages into a {@link ServerTiming}.
+     */
+    @FunctionalInterface
+    private interface TimedHandler {
+        /**
+         * Handles the request.
+         *
+         * @param ctx    the request context.
+         * @param timing the stage timings for this request.
+         * @throws Exception if the request cannot be handled.
+         */
+        void handle(Context ctx, ServerTiming timing) throws Exception;
     }
 
     /**
@@ -77,11 +246,22 @@ public class MapServer {
      * @return the port for communicating with the server.
      */
     private static int port() {
-        String port = System.getenv("PORT");
-        if (port != null) {
-            return Integer.parseInt(port);
+        return env("PORT", PORT);
+    }
+
+    /**
+     * Returns the integer value of the given environment variable, or the default value if it is not set.
+     *
+     * @param name         the name of the environment variable.
+     * @param defaultValue the value to return if the environment variable is not set.
+     * @return the integer value of the given environment variable, or the default value if it is not set.
+     */
+    private static int env(String name, int defaultValue) {
+        String value = System.getenv(name);
+        if (value != null) {
+            return Integer.parseInt(value);
         }
-        return PORT;
+        return defaultValue;
     }
 
     /**
@@ -117,13 +297,14 @@ public class MapServer {
             overlay.setCharAt(overlay.length() - 1, '/');
         }
         return new URI(String.format(
-                "https://api.mapbox.com/"
+                "%s"
                         // {username}/{style_id} and {overlay} (must include trailing slash)
                         + "styles/v1/%s/%s/static/%s"
                         // {lon},{lat},{zoom}/{width}x{height}{@2x}
                         + "%f,%f,%d/%dx%d%s"
                         // Access token and optional parameters
                         + "?access_token=%s&logo=false&attribution=false",
+                System.getenv().getOrDefault("MAPBOX_URL", MAPBOX_URL),
                 "mapbox",
                 "cj7t3i5yj0unt2rmt3y4b5e32",
                 overlay,
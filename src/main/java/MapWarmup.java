@@ -0,0 +1,102 @@
+import org.locationtech.spatial4j.shape.Point;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * Synthetic workload for warming up the just-in-time compiler before {@link MapServer} accepts traffic. Replays random
+ * routes between, and random prefixes of, the place names in the places TSV so that the routing and search hot paths
+ * are compiled by the optimizing compiler before the first real request arrives.
+ *
+ * @see MapServer
+ * @see MapGraph
+ */
+public class MapWarmup {
+    /**
+     * Maximum length of a generated search prefix.
+     */
+    private static final int MAX_PREFIX_LENGTH = 8;
+    /**
+     * The map to warm up.
+     */
+    private final MapGraph map;
+    /**
+     * All non-blank place names from the places TSV.
+     */
+    private final List<String> names;
+    /**
+     * The place names that have at least one location in the map.
+     */
+    private final List<String> located;
+    /**
+     * Source of randomness for a reproducible workload.
+     */
+    private final Random random;
+
+    /**
+     * Constructs a warm-up workload for the given map drawing from the place names in the given places TSV.
+     *
+     * @param map        the map to warm up.
+     * @param placesPath the path to a TSV file representing places and importance.
+     * @throws IOException if the places file is not found.
+     */
+    public MapWarmup(MapGraph map, String placesPath) throws IOException {
+        this.map = map;
+        this.names = new ArrayList<>();
+        this.located = new ArrayList<>();
+        this.random = new Random(373);
+        try (Scanner input = new Scanner(MapGraph.fileStream(placesPath))) {
+            while (input.hasNextLine()) {
+                String name = input.nextLine().split("\t", 2)[0];
+                // Blank names have no prefixes to search for, and reloaded data may contain them.
+                if (name.isBlank()) {
+                    continue;
+                }
+                names.add(name);
+                if (!map.getLocations(name).isEmpty()) {
+                    located.add(name);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the given number of random route and search queries against the map.
+     *
+     * @param routes   the number of shortest path queries between random places.
+     * @param searches the number of autocomplete queries for random place name prefixes.
+     * @return the elapsed time in milliseconds.
+     */
+    public long run(int routes, int searches) {
+        long start = System.nanoTime();
+        if (!located.isEmpty()) {
+            for (int i = 0; i < routes; i += 1) {
+                Point from = randomLocation();
+                Point to = randomLocation();
+                map.shortestPath(from, to);
+            }
+        }
+        if (!names.isEmpty()) {
+            for (int i = 0; i < searches; i += 1) {
+                String name = names.get(random.nextInt(names.size()));
+                int length = 1 + random.nextInt(Math.min(name.length(), MAX_PREFIX_LENGTH));
+                map.getLocationsByPrefix(name.substring(0, length), MapServer.MAX_MATCHES);
+                map.getLocations(name);
+            }
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * Returns a location of a random place that exists in the map.
+     *
+     * @return a location of a random place that exists in the map.
+     */
+    private Point randomLocation() {
+        List<Point> locations = map.getLocations(located.get(random.nextInt(located.size())));
+        return locations.get(random.nextInt(locations.size()));
+    }
+}
@@ -0,0 +1,380 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Generate synthetic OpenStreetMap road networks for measuring how {@link MapGraph} scales beyond the Seattle extract.
+ * The network is a grid of residential streets with perturbed node positions and randomly missing segments, crossed
+ * every few blocks by primary arterials and encircled by motorway ring roads with links down to the grid. A fraction
+ * of grid nodes are named, and a matching places TSV assigns each name an importance. The output depends only on the
+ * number of nodes and the seed, and is streamed so that networks with tens of millions of nodes can be written without
+ * holding them in memory.
+ *
+ * @see MapBenchmark
+ */
+public class OsmGenerator {
+    /**
+     * Latitude of the center of the generated network.
+     */
+    private static final double CENTER_LAT = 47.6;
+    /**
+     * Longitude of the center of the generated network.
+     */
+    private static final double CENTER_LON = -122.3;
+    /**
+     * Distance between adjacent grid rows in degrees latitude (about 110 meters).
+     */
+    private static final double LAT_SPACING = 0.001;
+    /**
+     * Distance between adjacent grid columns in degrees longitude (about 110 meters at the center latitude).
+     */
+    private static final double LON_SPACING = 0.0015;
+    /**
+     * Maximum displacement of a grid node as a fraction of the grid spacing.
+     */
+    private static final double JITTER = 0.3;
+    /**
+     * Probability that a street segment between adjacent grid nodes is missing.
+     */
+    private static final double DROPOUT = 0.05;
+    /**
+     * Probability that a grid node is named.
+     */
+    private static final double NAMED = 0.05;
+    /**
+     * Every this many grid rows and columns, the street is a primary arterial rather than residential.
+     */
+    private static final int ARTERIAL_EVERY = 10;
+    /**
+     * Number of grid cells between consecutive ring roads.
+     */
+    private static final int RING_EVERY = 100;
+    /**
+     * Every this many ring road nodes, a link connects the ring road to the nearest grid node.
+     */
+    private static final int LINK_EVERY = 8;
+    /**
+     * Maximum number of nodes in a single way, following the OpenStreetMap API limit.
+     */
+    private static final int MAX_WAY_NODES = 2000;
+    /**
+     * Words for generating unique place names.
+     */
+    private static final String[] FIRST = {
+            "Alder", "Birch", "Cedar", "Dogwood", "Elm", "Fir", "Ginkgo", "Hawthorn", "Ivy", "Juniper", "Kale",
+            "Laurel", "Maple", "Nettle", "Oak", "Pine", "Quince", "Rowan", "Spruce", "Tamarack", "Umber", "Vine",
+            "Willow", "Yew", "Zinnia"
+    };
+    /**
+     * Kinds of places for generating unique place names.
+     */
+    private static final String[] SECOND = {
+            "Bakery", "Cafe", "Clinic", "Diner", "Garden", "Hall", "Library", "Market", "Park", "Pharmacy",
+            "Playground", "School", "Station", "Studio", "Theater"
+    };
+
+    private final int rows;
+    private final int cols;
+    private final long seed;
+    private final int rings;
+    private long nextId;
+    private long nodes;
+    private int named;
+
+    /**
+     * Constructs a generator for a square grid network with approximately the given number of nodes.
+     *
+     * @param nodes the approximate number of grid nodes.
+     * @param seed  the seed for all random choices.
+     */
+    public OsmGenerator(long nodes, long seed) {
+        int side = (int) Math.max(2, Math.ceil(Math.sqrt(nodes)));
+        this.rows = side;
+        this.cols = side;
+        this.seed = seed;
+        this.rings = (side / 2) / RING_EVERY;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: OsmGenerator <nodes> <output.osm.gz> <output-places.tsv> [seed]");
+            System.exit(1);
+        }
+        long nodes = Long.parseLong(args[0]);
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 373;
+        OsmGenerator generator = new OsmGenerator(nodes, seed);
+        long start = System.nanoTime();
+        long written = generator.write(args[1], args[2]);
+        System.out.println("Wrote " + written + " nodes in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Writes the gzipped OSM (XML) file and the places TSV for this network.
+     *
+     * @param osmPath    the path for the gzipped OSM (XML) file.
+     * @param placesPath the path for the TSV file representing places and importance.
+     * @return the total number of nodes written.
+     * @throws IOException if a file cannot be written.
+     */
+    public long write(String osmPath, String placesPath) throws IOException {
+        nextId = 1;
+        nodes = 0;
+        named = 0;
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(new FileOutputStream(osmPath), 1 << 16), StandardCharsets.UTF_8), 1 << 16)) {
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            out.write("<osm version=\"0.6\" generator=\"OsmGenerator\">\n");
+            writeGridNodes(out);
+            long ringStart = nextId;
+            writeRingNodes(out);
+            nodes = nextId - 1;
+            writeGridWays(out);
+            writeRingWays(out, ringStart);
+            out.write("</osm>\n");
+        }
+        SplittableRandom random = new SplittableRandom(seed ^ 0x5DEECE66DL);
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(placesPath), StandardCharsets.UTF_8))) {
+            for (int i = 0; i < named; i += 1) {
+                out.write(name(i));
+                out.write('\t');
+                out.write(Integer.toString(random.nextInt(1000)));
+                out.write('\n');
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Returns the southern boundary of the network in degrees latitude.
+     *
+     * @return the southern boundary of the network.
+     */
+    public double minLat() {
+        return latOf(0);
+    }
+
+    /**
+     * Returns the northern boundary of the network in degrees latitude.
+     *
+     * @return the northern boundary of the network.
+     */
+    public double maxLat() {
+        return latOf(rows - 1);
+    }
+
+    /**
+     * Returns the western boundary of the network in degrees longitude.
+     *
+     * @return the western boundary of the network.
+     */
+    public double minLon() {
+        return lonOf(0);
+    }
+
+    /**
+     * Returns the eastern boundary of the network in degrees longitude.
+     *
+     * @return the eastern boundary of the network.
+     */
+    public double maxLon() {
+        return lonOf(cols - 1);
+    }
+
+    /**
+     * Writes one node for each grid intersection, in row-major order so that ids can be computed from positions.
+     */
+    private void writeGridNodes(Writer out) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int r = 0; r < rows; r += 1) {
+            for (int c = 0; c < cols; c += 1) {
+                double lat = latOf(r) + (random.nextDouble() * 2 - 1) * JITTER * LAT_SPACING;
+                double lon = lonOf(c) + (random.nextDouble() * 2 - 1) * JITTER * LON_SPACING;
+                String name = null;
+                if (random.nextDouble() < NAMED) {
+                    name = name(named);
+                    named += 1;
+                }
+                writeNode(out, lat, lon, name);
+            }
+        }
+    }
+
+    /**
+     * Writes the nodes for each ring road, evenly spaced around a circle centered on the grid.
+     */
+    private void writeRingNodes(Writer out) throws IOException {
+        for (int i = 1; i <= rings; i += 1) {
+            int count = ringNodes(i);
+            for (int j = 0; j < count; j += 1) {
+                double angle = 2 * Math.PI * j / count;
+                double lat = CENTER_LAT + i * RING_EVERY * LAT_SPACING * Math.sin(angle);
+                double lon = CENTER_LON + i * RING_EVERY * LON_SPACING * Math.cos(angle);
+                writeNode(out, lat, lon, null);
+            }
+        }
+    }
+
+    /**
+     * Writes the ways along each grid row and column, skipping randomly missing segments.
+     */
+    private void writeGridWays(Writer out) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed * 31 + 7);
+        WayWriter way = new WayWriter(out);
+        for (int r = 0; r < rows; r += 1) {
+            way.highway = r % ARTERIAL_EVERY == 0 ? "primary" : "residential";
+            for (int c = 0; c < cols; c += 1) {
+                if (c > 0 && random.nextDouble() < DROPOUT) {
+                    way.end();
+                }
+                way.add(gridId(r, c));
+            }
+            way.end();
+        }
+        for (int c = 0; c < cols; c += 1) {
+            way.highway = c % ARTERIAL_EVERY == 0 ? "primary" : "residential";
+            for (int r = 0; r < rows; r += 1) {
+                if (r > 0 && random.nextDouble() < DROPOUT) {
+                    way.end();
+                }
+                way.add(gridId(r, c));
+            }
+            way.end();
+        }
+    }
+
+    /**
+     * Writes each closed ring road and the links from some of its nodes to the nearest grid node.
+     */
+    private void writeRingWays(Writer out, long ringStart) throws IOException {
+        WayWriter way = new WayWriter(out);
+        long first = ringStart;
+        for (int i = 1; i <= rings; i += 1) {
+            int count = ringNodes(i);
+            way.highway = "motorway";
+            for (int j = 0; j < count; j += 1) {
+                way.add(first + j);
+            }
+            way.add(first);
+            way.end();
+            way.highway = "motorway_link";
+            for (int j = 0; j < count; j += LINK_EVERY) {
+                double angle = 2 * Math.PI * j / count;
+                int r = (int) Math.round((rows - 1) / 2.0 + i * RING_EVERY * Math.sin(angle));
+                int c = (int) Math.round((cols - 1) / 2.0 + i * RING_EVERY * Math.cos(angle));
+                r = Math.min(Math.max(r, 0), rows - 1);
+                c = Math.min(Math.max(c, 0), cols - 1);
+                way.add(first + j);
+                way.add(gridId(r, c));
+                way.end();
+            }
+            first += count;
+        }
+    }
+
+    /**
+     * Writes a single node with the next id.
+     */
+    private void writeNode(Writer out, double lat, double lon, String name) throws IOException {
+        out.write("<node id=\"");
+        out.write(Long.toString(nextId));
+        out.write("\" lat=\"");
+        out.write(Double.toString(lat));
+        out.write("\" lon=\"");
+        out.write(Double.toString(lon));
+        if (name == null) {
+            out.write("\"/>\n");
+        } else {
+            out.write("\"><tag k=\"name\" v=\"");
+            out.write(name);
+            out.write("\"/></node>\n");
+        }
+        nextId += 1;
+    }
+
+    /**
+     * Returns the number of nodes in the given ring road, about one per grid spacing of circumference.
+     */
+    private static int ringNodes(int ring) {
+        return (int) Math.ceil(2 * Math.PI * ring * RING_EVERY);
+    }
+
+    private long gridId(int r, int c) {
+        return (long) r * cols + c + 1;
+    }
+
+    private double latOf(int r) {
+        return CENTER_LAT + (r - (rows - 1) / 2.0) * LAT_SPACING;
+    }
+
+    private double lonOf(int c) {
+        return CENTER_LON + (c - (cols - 1) / 2.0) * LON_SPACING;
+    }
+
+    /**
+     * Returns the unique place name with the given index.
+     *
+     * @param index the index of the place name.
+     * @return the unique place name with the given index.
+     */
+    static String name(int index) {
+        String result = FIRST[index % FIRST.length] + " " + SECOND[(index / FIRST.length) % SECOND.length];
+        int number = index / (FIRST.length * SECOND.length);
+        if (number > 0) {
+            result += " " + number;
+        }
+        return result;
+    }
+
+    /**
+     * Streams ways of consecutive node references, splitting long ways and dropping ways with fewer than two nodes.
+     */
+    private class WayWriter {
+        private final Writer out;
+        private final long[] refs;
+        private int size;
+        private String highway;
+
+        WayWriter(Writer out) {
+            this.out = out;
+            this.refs = new long[MAX_WAY_NODES];
+        }
+
+        /**
+         * Adds the next node reference to the current way.
+         */
+        void add(long ref) throws IOException {
+            if (size == refs.length) {
+                // Continue from the last node so the split ways remain connected.
+                long last = refs[size - 1];
+                end();
+                refs[0] = last;
+                size = 1;
+            }
+            refs[size] = ref;
+            size += 1;
+        }
+
+        /**
+         * Writes the current way if it has at least two nodes and starts a new way.
+         */
+        void end() throws IOException {
+            if (size >= 2) {
+                out.write("<way id=\"");
+                out.write(Long.toString(nextId));
+                out.write("\">");
+                for (int i = 0; i < size; i += 1) {
+                    out.write("<nd ref=\"");
+                    out.write(Long.toString(refs[i]));
+                    out.write("\"/>");
+                }
+                out.write("<tag k=\"highway\" v=\"");
+                out.write(highway);
+                out.write("\"/></way>\n");
+                nextId += 1;
+            }
+            size = 0;
+        }
+    }
+}
@@ -1,4 +1,5 @@
 import graphs.shortestpaths.DijkstraSolver;
+import profiling.SeamFindEvent;
 import seamfinding.energy.DualGradientEnergyFunction;
 import seamfinding.energy.EnergyFunction;
 import seamfinding.AdjacencyListSeamFinder;
@@ -112,7 +113,10 @@ public class SeamCarver {
      * @return a minimum-cost horizontal seam.
      */
     public List<Integer> removeHorizontal() {
+        SeamFindEvent event = new SeamFindEvent();
+        event.begin();
         List<Integer> seam = seamFinder.findHorizontal(picture, f);
+        commit(event, "horizontal");
         Picture result = new Picture(picture.width(), picture.height() - 1);
         for (int x = 0; x < picture.width(); x += 1) {
             for (int y = 0; y < seam.get(x); y += 1) {
@@ -132,7 +136,10 @@ public class SeamCarver {
      * @return a minimum-cost vertical seam.
      */
     public List<Integer> removeVertical() {
+        SeamFindEvent event = new SeamFindEvent();
+        event.begin();
         List<Integer> seam = seamFinder.findVertical(picture, f);
+        commit(event, "vertical");
         Picture result = new Picture(picture.width() - 1, picture.height());
         for (int y = 0; y < picture.height(); y += 1) {
             for (int x = 0; x < seam.get(y); x += 1) {
@@ -145,4 +152,21 @@ public class SeamCarver {
         picture = result;
         return seam;
     }
+
+    /**
+     * Ends and commits the given seam find event for the current picture if a recording is capturing it.
+     *
+     * @param event       the seam find event that began before finding the seam.
+     * @param orientation the orientation of the seam.
+     */
+    private void commit(SeamFindEvent event, String orientation) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.finder = seamFinder.getClass().getSimpleName();
+            event.orientation = orientation;
+            event.width = picture.width();
+            event.height = picture.height();
+            event.commit();
+        }
+    }
 }
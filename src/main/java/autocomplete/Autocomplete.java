@@ -1,7 +1,10 @@
 package autocomplete;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Suggest exact-character prefix matches for any query {@link CharSequence}.
@@ -9,7 +12,13 @@ import java.util.List;
  * @see TreeSetAutocomplete
  * @see SequentialSearchAutocomplete
  * @see BinarySearchAutocomplete
+ * @see PackedBinarySearchAutocomplete
  * @see TernarySearchTreeAutocomplete
+ * @see RadixTrieAutocomplete
+ * @see FstAutocomplete
+ * @see NormalizedAutocomplete
+ * @see SuffixArrayAutocomplete
+ * @see FMIndex
  */
 public interface Autocomplete {
     /**
@@ -19,6 +28,16 @@ public interface Autocomplete {
      */
     void addAll(Collection<? extends CharSequence> terms);
 
+    /**
+     * Adds the given autocompletion terms with their weights for ranking {@link #topMatches(CharSequence, int)}.
+     * Implementations that do not store weights add the terms and ignore the weights.
+     *
+     * @param terms map of elements to be added to their weights.
+     */
+    default void addAll(Map<? extends CharSequence, ? extends Number> terms) {
+        addAll(terms.keySet());
+    }
+
     /**
      * Returns all autocompletion terms that match the given prefix.
      *
@@ -26,6 +45,66 @@ public interface Autocomplete {
      */
     List<CharSequence> allMatches(CharSequence prefix);
 
+    /**
+     * Returns a lazy stream of the autocompletion terms that match the given prefix, in the same order as
+     * {@link #allMatches(CharSequence)}. Sorted implementations seek to the first match and produce the rest on
+     * demand, so {@code limit(n)} does constant work per match after the seek and, where the bounds of the match
+     * range are known, {@code count()} and parallel splitting need not visit the matches at all. By default, this
+     * builds the list of all matches.
+     *
+     * @param prefix search query.
+     * @return a stream of the terms that match the given prefix.
+     */
+    default Stream<CharSequence> stream(CharSequence prefix) {
+        return allMatches(prefix).stream();
+    }
+
+    /**
+     * Returns the number of autocompletion terms that match the given prefix. Implementations that know the bounds of
+     * the match range or the number of terms below a node count the matches without visiting them; by default, this
+     * counts the terms in {@link #stream(CharSequence)}.
+     *
+     * @param prefix search query.
+     * @return the number of terms that match the given prefix.
+     */
+    default int countMatches(CharSequence prefix) {
+        return (int) stream(prefix).count();
+    }
+
+    /**
+     * Returns up to the given number of autocompletion terms that match the given prefix in descending order of weight.
+     * Implementations that do not store weights treat all terms as equally weighted.
+     *
+     * @param prefix search query.
+     * @param k      the maximum number of terms to return.
+     * @return a list of up to k matching terms in descending order of weight.
+     */
+    default List<CharSequence> topMatches(CharSequence prefix, int k) {
+        List<CharSequence> matches = allMatches(prefix);
+        if (matches.size() <= k) {
+            return matches;
+        }
+        return new ArrayList<>(matches.subList(0, k));
+    }
+
+    /**
+     * Returns up to the given number of autocompletion terms that match the given prefix in descending order of weight,
+     * each with its weight, so that callers merging the matches of several instances can rank them without keeping
+     * their own copy of the weights. By default, this pairs {@link #topMatches(CharSequence, int)} with weight 0, as
+     * for implementations that do not store weights.
+     *
+     * @param prefix search query.
+     * @param k      the maximum number of terms to return.
+     * @return a list of up to k matching terms and their weights in descending order of weight.
+     */
+    default List<WeightedTerm> weightedTopMatches(CharSequence prefix, int k) {
+        List<WeightedTerm> result = new ArrayList<>();
+        for (CharSequence term : topMatches(prefix, k)) {
+            result.add(new WeightedTerm(term, 0.0));
+        }
+        return result;
+    }
+
     /**
      * Returns true if and only if the given term matches the given prefix.
      *
@@ -34,10 +113,24 @@ public interface Autocomplete {
      * @return true if and only if the given term matches the given prefix.
      */
     static boolean isPrefixOf(CharSequence prefix, CharSequence term) {
-        if (prefix.length() <= term.length()) {
-            CharSequence part = term.subSequence(0, prefix.length());
-            return CharSequence.compare(prefix, part) == 0;
+        if (prefix.length() > term.length()) {
+            return false;
         }
-        return false;
+        // Compare characters in place rather than allocating a subSequence of the term on every check.
+        for (int i = 0; i < prefix.length(); i += 1) {
+            if (prefix.charAt(i) != term.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * An autocompletion term and its weight.
+     *
+     * @param term   the term.
+     * @param weight the weight of the term.
+     */
+    record WeightedTerm(CharSequence term, double weight) {
     }
 }
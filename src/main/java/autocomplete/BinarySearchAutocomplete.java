@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Binary search implementation of the {@link Autocomplete} interface.
@@ -23,10 +24,30 @@ public class BinarySearchAutocomplete implements Autocomplete {
         elements = new ArrayList<>();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the new terms are sorted. They are then merged into the existing sorted terms in linear time, so adding a
+     * small batch costs O(n + b log b) rather than re-sorting all n + b terms.
+     */
     @Override
     public void addAll(Collection<? extends CharSequence> terms) {
-        elements.addAll(terms);
-        Collections.sort(elements, CharSequence::compare);
+        List<CharSequence> batch = new ArrayList<>(terms);
+        batch.sort(CharSequence::compare);
+        int i = elements.size() - 1;
+        int j = batch.size() - 1;
+        elements.addAll(Collections.nCopies(batch.size(), null));
+        // Merge from the back into the grown list, so each existing term moves at most once and none is overwritten
+        // before it is moved.
+        for (int k = elements.size() - 1; j >= 0; k -= 1) {
+            if (i >= 0 && CharSequence.compare(elements.get(i), batch.get(j)) > 0) {
+                elements.set(k, elements.get(i));
+                i -= 1;
+            } else {
+                elements.set(k, batch.get(j));
+                j -= 1;
+            }
+        }
     }
 
     @Override
@@ -64,4 +85,56 @@ public class BinarySearchAutocomplete implements Autocomplete {
         }
     return result;
     }
+
+    @Override
+    public Stream<CharSequence> stream(CharSequence prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return Stream.empty();
+        }
+        // The matches are the contiguous range between the two bounds, so the sublist stream is sized and splittable.
+        int start = lowerBound(prefix);
+        return elements.subList(start, upperBound(prefix, start)).stream();
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return 0;
+        }
+        int start = lowerBound(prefix);
+        return upperBound(prefix, start) - start;
+    }
+
+    /**
+     * Returns the index of the first term that is not less than the given prefix.
+     *
+     * @param prefix search query.
+     * @return the index of the first term that could match the prefix.
+     */
+    private int lowerBound(CharSequence prefix) {
+        int index = Collections.binarySearch(elements, prefix, CharSequence::compare);
+        return index < 0 ? -(index + 1) : index;
+    }
+
+    /**
+     * Returns the index after the last term that matches the given prefix, searching from the given lower bound.
+     * Since the terms are sorted, every term between the bounds matches the prefix.
+     *
+     * @param prefix search query.
+     * @param start  the lower bound of the matching terms.
+     * @return the index after the last term that matches the prefix.
+     */
+    private int upperBound(CharSequence prefix, int start) {
+        int lo = start;
+        int hi = elements.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Autocomplete.isPrefixOf(prefix, elements.get(mid))) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
 }
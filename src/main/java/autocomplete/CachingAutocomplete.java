@@ -0,0 +1,353 @@
+package autocomplete;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Caching decorator for the {@link Autocomplete#topMatches(CharSequence, int)} method of an {@link Autocomplete}
+ * implementation. Keystroke traffic asks for "s", "st", "sta", ... for the same popular names from many users, so the
+ * decorator remembers the top matches for each search key in a bounded concurrent cache.
+ * <p>
+ * Eviction approximates least-recently-used with the CLOCK algorithm so that cache hits never take a lock: a hit only
+ * sets the reference bit of its entry. When an insertion grows the cache past its capacity, one thread at a time sweeps
+ * a clock hand over the entries, clearing set reference bits and evicting the first entry whose bit was already clear.
+ * <p>
+ * The cached matches of a prefix are in descending order of weight, and every match of a longer prefix is also a match
+ * of the shorter one, so filtering the cached matches of an ancestor prefix gives the heaviest matches of the longer
+ * prefix in order. The same holds for any notion of matching in which a match of a query also matches every prefix of
+ * the query, such as the word matching of {@link TokenAutocomplete}. On a miss, a query first refines the matches cached for its longest cached ancestor, and only asks
+ * the wrapped implementation if that leaves fewer than the requested number of matches when the ancestor's matches
+ * were truncated.
+ *
+ * @see Autocomplete
+ */
+public class CachingAutocomplete implements Autocomplete {
+    /**
+     * The wrapped implementation.
+     */
+    private final Autocomplete delegate;
+    /**
+     * Returns the search key of a prefix or term, such that a term matches a prefix exactly when the key of the term
+     * starts with the key of the prefix.
+     */
+    private final Function<? super CharSequence, String> key;
+    /**
+     * Returns whether a term with the second search key matches a query with the first search key.
+     */
+    private final BiPredicate<String, String> matches;
+    /**
+     * The number of top matches cached for each key.
+     */
+    private final int depth;
+    /**
+     * The maximum number of cached keys, which insertions may briefly exceed while another thread is evicting.
+     */
+    private final int capacity;
+    /**
+     * Each cached key mapped to its top matches.
+     */
+    private final ConcurrentHashMap<String, Slot> cache;
+    /**
+     * Held by the thread sweeping the clock hand.
+     */
+    private final ReentrantLock evicting;
+    /**
+     * The clock hand, or null if a sweep must start over from the beginning of the cache.
+     */
+    private Iterator<Map.Entry<String, Slot>> hand;
+    /**
+     * Number of queries answered by the cached matches of their key.
+     */
+    private final LongAdder hits;
+    /**
+     * Number of queries answered by refining the cached matches of an ancestor key.
+     */
+    private final LongAdder refinements;
+    /**
+     * Number of queries answered by the wrapped implementation.
+     */
+    private final LongAdder misses;
+
+    /**
+     * Constructs an instance caching the top matches of the given implementation for exact prefixes.
+     *
+     * @param delegate the wrapped implementation.
+     * @param depth    the number of top matches to cache for each prefix, the largest k answered from the cache.
+     * @param capacity the maximum number of cached prefixes.
+     */
+    public CachingAutocomplete(Autocomplete delegate, int depth, int capacity) {
+        this(delegate, CharSequence::toString, depth, capacity);
+    }
+
+    /**
+     * Constructs an instance caching the top matches of the given implementation by search key, such as
+     * {@link NormalizedAutocomplete#fold(CharSequence)} for a {@link NormalizedAutocomplete}.
+     *
+     * @param delegate the wrapped implementation.
+     * @param key      returns the search key of a prefix or term, such that a term matches a prefix exactly when the
+     *                 key of the term starts with the key of the prefix.
+     * @param depth    the number of top matches to cache for each key, the largest k answered from the cache.
+     * @param capacity the maximum number of cached keys.
+     */
+    public CachingAutocomplete(Autocomplete delegate, Function<? super CharSequence, String> key, int depth,
+                               int capacity) {
+        this(delegate, key, (prefix, term) -> term.startsWith(prefix), depth, capacity);
+    }
+
+    /**
+     * Constructs an instance caching the top matches of the given implementation by search key, refining cached
+     * matches with the given notion of matching, such as {@link TokenAutocomplete#matches(String, String)} for a
+     * {@link TokenAutocomplete}.
+     *
+     * @param delegate the wrapped implementation.
+     * @param key      returns the search key of a query or term.
+     * @param matches  returns whether a term with the second key matches a query with the first key. A term that
+     *                 matches a query must also match every query whose key is a prefix of the query's key.
+     * @param depth    the number of top matches to cache for each key, the largest k answered from the cache.
+     * @param capacity the maximum number of cached keys.
+     */
+    public CachingAutocomplete(Autocomplete delegate, Function<? super CharSequence, String> key,
+                               BiPredicate<String, String> matches, int depth, int capacity) {
+        this.delegate = delegate;
+        this.key = key;
+        this.matches = matches;
+        this.depth = depth;
+        this.capacity = capacity;
+        this.cache = new ConcurrentHashMap<>();
+        this.evicting = new ReentrantLock();
+        this.hits = new LongAdder();
+        this.refinements = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Clears the cache, since the new terms may belong among the top matches of any prefix.
+     */
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        delegate.addAll(terms);
+        cache.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Clears the cache, since the new terms may belong among the top matches of any prefix.
+     */
+    @Override
+    public void addAll(Map<? extends CharSequence, ? extends Number> terms) {
+        delegate.addAll(terms);
+        cache.clear();
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        return delegate.allMatches(prefix);
+    }
+
+    @Override
+    public Stream<CharSequence> stream(CharSequence prefix) {
+        return delegate.stream(prefix);
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        return delegate.countMatches(prefix);
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        if (prefix == null || k <= 0 || k > depth) {
+            return delegate.topMatches(prefix, k);
+        }
+        String key = this.key.apply(prefix);
+        if (key.isEmpty()) {
+            return delegate.topMatches(prefix, k);
+        }
+        Entry entry = lookup(key);
+        if (entry != null && entry.covers(k)) {
+            hits.increment();
+            return entry.first(k);
+        }
+        entry = refine(key, k);
+        if (entry != null) {
+            refinements.increment();
+        } else {
+            misses.increment();
+            List<CharSequence> terms = delegate.topMatches(prefix, depth);
+            List<String> keys = new ArrayList<>(terms.size());
+            for (CharSequence term : terms) {
+                keys.add(this.key.apply(term));
+            }
+            entry = new Entry(List.copyOf(terms), keys, terms.size() < depth);
+        }
+        cache.put(key, new Slot(entry));
+        if (cache.size() > capacity) {
+            evict();
+        }
+        return entry.first(k);
+    }
+
+    /**
+     * Returns the cached matches of the given key and marks them as recently used, or null if the key is not cached.
+     *
+     * @param key the search key.
+     * @return the cached matches of the key, or null.
+     */
+    private Entry lookup(String key) {
+        Slot slot = cache.get(key);
+        if (slot == null) {
+            return null;
+        }
+        // Only write the bit when it changes, so that hits on a popular key do not contend for its cache line.
+        if (!slot.referenced) {
+            slot.referenced = true;
+        }
+        return slot.entry;
+    }
+
+    /**
+     * Sweeps the clock hand until the cache is back within capacity, unless another thread is already sweeping.
+     */
+    private void evict() {
+        if (!evicting.tryLock()) {
+            return;
+        }
+        try {
+            while (cache.size() > capacity) {
+                if (hand == null || !hand.hasNext()) {
+                    hand = cache.entrySet().iterator();
+                    if (!hand.hasNext()) {
+                        return;
+                    }
+                }
+                Map.Entry<String, Slot> next = hand.next();
+                Slot slot = next.getValue();
+                if (slot.referenced) {
+                    // Second chance: keep the entry until the hand comes around again.
+                    slot.referenced = false;
+                } else {
+                    cache.remove(next.getKey(), slot);
+                }
+            }
+        } finally {
+            evicting.unlock();
+        }
+    }
+    /**
+     * Returns the top matches of the given key found by filtering the cached matches of its longest cached ancestor,
+     * or null if there is no such ancestor or it does not have at least k matches of the key.
+     *
+     * @param key the search key.
+     * @param k   the number of matches needed.
+     * @return the top matches of the key, or null.
+     */
+    private Entry refine(String key, int k) {
+        for (int length = key.length() - 1; length > 0; length -= 1) {
+            Entry ancestor = lookup(key.substring(0, length));
+            if (ancestor != null) {
+                Entry result = ancestor.filter(key, matches);
+                return result.covers(k) ? result : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of queries answered by the cached matches of their key.
+     *
+     * @return the number of cache hits.
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of queries answered by refining the cached matches of an ancestor key.
+     *
+     * @return the number of refined cache misses.
+     */
+    public long refinements() {
+        return refinements.sum();
+    }
+
+    /**
+     * Returns the number of queries answered by the wrapped implementation.
+     *
+     * @return the number of cache misses.
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of cached keys.
+     *
+     * @return the number of cached keys.
+     */
+    int size() {
+        return cache.size();
+    }
+
+    /**
+     * A cache entry and its reference bit, which is set by each hit and cleared by the clock hand.
+     */
+    private static class Slot {
+        private final Entry entry;
+        private volatile boolean referenced;
+
+        /**
+         * Constructs a slot for the given entry with a clear reference bit.
+         *
+         * @param entry the cached top matches.
+         */
+        Slot(Entry entry) {
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * The cached top matches of a key.
+     *
+     * @param terms    the top matches in descending order of weight.
+     * @param keys     the search key of each match.
+     * @param complete whether the terms are all the matches of the key.
+     */
+    private record Entry(List<CharSequence> terms, List<String> keys, boolean complete) {
+        /**
+         * Returns whether these are the top k matches of the key.
+         */
+        boolean covers(int k) {
+            return complete || k <= terms.size();
+        }
+
+        /**
+         * Returns a new list of the first k matches.
+         */
+        List<CharSequence> first(int k) {
+            return new ArrayList<>(terms.subList(0, Math.min(k, terms.size())));
+        }
+
+        /**
+         * Returns the matches whose keys match the given key, which are the top matches of that key.
+         */
+        Entry filter(String key, BiPredicate<String, String> matches) {
+            List<CharSequence> filteredTerms = new ArrayList<>();
+            List<String> filteredKeys = new ArrayList<>();
+            for (int i = 0; i < terms.size(); i += 1) {
+                if (matches.test(key, keys.get(i))) {
+                    filteredTerms.add(terms.get(i));
+                    filteredKeys.add(keys.get(i));
+                }
+            }
+            return new Entry(filteredTerms, filteredKeys, complete);
+        }
+    }
+}
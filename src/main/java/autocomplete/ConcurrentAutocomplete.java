@@ -0,0 +1,181 @@
+package autocomplete;
+
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Thread-safe implementation of the {@link Autocomplete} interface that allows terms to be added while other threads
+ * query. The terms live in an immutable version made of a large base index and a small delta index of recently added
+ * terms, each built by a wrapped implementation. Readers take the current version from a volatile field and never
+ * block or see a partially built index. Writers take turns building the next version off to the side and then publish
+ * it with a single volatile write.
+ * <p>
+ * Each write rebuilds only the delta with the new terms, so a small write costs time proportional to the delta rather
+ * than to every term. Once the delta grows past a fraction of the base, or when a write changes the weight of a term
+ * already in the base, the writer compacts every term into a new base and starts an empty delta. Base and delta never
+ * share a term. Matches from the base are listed before matches from the delta, and {@link #topMatches} ranks the
+ * top matches of both by the weights this class recorded when the terms were added.
+ *
+ * @see Autocomplete
+ */
+public class ConcurrentAutocomplete implements Autocomplete {
+    /**
+     * The smallest delta that triggers compaction, however small the base.
+     */
+    private static final int MIN_COMPACTION = 1024;
+    /**
+     * The delta is compacted into the base when it grows past the base size divided by this.
+     */
+    private static final int COMPACTION_RATIO = 16;
+    /**
+     * Creates the empty instances that each version's base and delta are built into.
+     */
+    private final Supplier<? extends Autocomplete> factory;
+    /**
+     * The current version, replaced as a whole by writers.
+     */
+    private volatile Version version;
+
+    /**
+     * Constructs an empty instance whose base and delta are built into instances created by the given factory. The
+     * instances must support {@link Autocomplete#addAll(Map)}, and are never modified once a version is published.
+     * {@link #topMatches} returns the heaviest matches only if the instances' own {@code topMatches} does, such as
+     * {@link TernarySearchTreeAutocomplete}; otherwise it ranks whichever matches they return.
+     *
+     * @param factory creates an empty implementation for storing terms.
+     */
+    public ConcurrentAutocomplete(Supplier<? extends Autocomplete> factory) {
+        this.factory = factory;
+        this.version = new Version(factory.get(), factory.get(), Map.of(), Map.of());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Terms that are not already present are added with weight 0. Returns after the new version is published.
+     */
+    @Override
+    public synchronized void addAll(Collection<? extends CharSequence> terms) {
+        Version current = version;
+        Map<String, Double> added = new HashMap<>();
+        for (CharSequence term : terms) {
+            String name = term.toString();
+            added.put(name, current.weight(name, 0.0));
+        }
+        publish(current, added);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns after the new version is published.
+     */
+    @Override
+    public synchronized void addAll(Map<? extends CharSequence, ? extends Number> terms) {
+        Map<String, Double> added = new HashMap<>();
+        for (Map.Entry<? extends CharSequence, ? extends Number> entry : terms.entrySet()) {
+            added.put(entry.getKey().toString(), entry.getValue().doubleValue());
+        }
+        publish(version, added);
+    }
+
+    /**
+     * Builds and publishes the version following the current version with the given terms added.
+     *
+     * @param current the current version.
+     * @param added   each added term mapped to its weight.
+     */
+    private void publish(Version current, Map<String, Double> added) {
+        Map<String, Double> delta = new HashMap<>(current.deltaWeights);
+        boolean reweighted = false;
+        for (Map.Entry<String, Double> entry : added.entrySet()) {
+            Double weight = current.baseWeights.get(entry.getKey());
+            if (weight == null) {
+                delta.put(entry.getKey(), entry.getValue());
+            } else if (!weight.equals(entry.getValue())) {
+                // The base is immutable, so a term whose weight changes moves into the next compacted base.
+                reweighted = true;
+                delta.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (reweighted || delta.size() > Math.max(MIN_COMPACTION, current.baseWeights.size() / COMPACTION_RATIO)) {
+            Map<String, Double> all = new HashMap<>(current.baseWeights);
+            all.putAll(delta);
+            version = new Version(build(all), factory.get(), Map.copyOf(all), Map.of());
+        } else if (!delta.equals(current.deltaWeights)) {
+            version = new Version(current.base, build(delta), current.baseWeights, Map.copyOf(delta));
+        }
+    }
+
+    /**
+     * Returns a new instance from the factory containing the given terms.
+     *
+     * @param terms each term mapped to its weight.
+     * @return a new instance containing the terms.
+     */
+    private Autocomplete build(Map<String, Double> terms) {
+        Autocomplete result = factory.get();
+        result.addAll(terms);
+        return result;
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        Version current = version;
+        List<CharSequence> result = new ArrayList<>(current.base.allMatches(prefix));
+        result.addAll(current.delta.allMatches(prefix));
+        return result;
+    }
+
+    @Override
+    public Stream<CharSequence> stream(CharSequence prefix) {
+        Version current = version;
+        return Stream.concat(current.base.stream(prefix), current.delta.stream(prefix));
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        Version current = version;
+        return current.base.countMatches(prefix) + current.delta.countMatches(prefix);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Ranks the top matches of the base and the delta by their recorded weights, so the result is in descending order
+     * of weight even if the wrapped implementation ignores weights or returns equal but distinct {@link CharSequence}
+     * instances. Terms that were never recorded, such as display forms returned by a wrapper, rank with weight 0.
+     */
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        Version current = version;
+        List<CharSequence> result = new ArrayList<>(current.base.topMatches(prefix, k));
+        result.addAll(current.delta.topMatches(prefix, k));
+        // The sort is stable, so equally weighted terms keep their order with base matches first.
+        result.sort(Comparator.comparingDouble(term -> -current.weight(term.toString(), 0.0)));
+        return result.size() <= k ? result : new ArrayList<>(result.subList(0, k));
+    }
+
+    /**
+     * An immutable version of the terms.
+     *
+     * @param base         the index of every term except those in the delta.
+     * @param delta        the index of the terms added since the base was built.
+     * @param baseWeights  each term in the base mapped to its weight.
+     * @param deltaWeights each term in the delta mapped to its weight.
+     */
+    private record Version(Autocomplete base, Autocomplete delta, Map<String, Double> baseWeights,
+                           Map<String, Double> deltaWeights) {
+        /**
+         * Returns the weight of the given term, or the given default if this version does not contain it.
+         */
+        double weight(String term, double defaultWeight) {
+            Double weight = deltaWeights.get(term);
+            if (weight == null) {
+                weight = baseWeights.get(term);
+            }
+            return weight == null ? defaultWeight : weight;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package autocomplete;
+
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * FM-index implementation of the {@link Autocomplete} interface over every suffix of a DNA text of the bases A, C, G
+ * and T. Instead of the text and a full suffix array, the index stores the Burrows-Wheeler transform (BWT) of the text
+ * packed two bits per base, occurrence counts at regular checkpoints, and a sample of the suffix array and its
+ * inverse, so the finished index uses well under one byte per base. Only the finished index is compact: the
+ * constructor builds an {@code int[]} copy of the text and its full suffix array, about 8 bytes per base at peak, and
+ * discards them once the BWT and samples are extracted. The text must therefore fit in memory as a suffix array once,
+ * but afterwards many such indexes can be held where their suffix arrays could not.
+ * <p>
+ * Counting the occurrences of a pattern is a backward search: one rank query per pattern character narrows the range
+ * of sorted suffixes starting with the pattern. Locating an occurrence walks the last-to-first (LF) mapping back to
+ * the nearest sampled suffix, and reading the text walks it back from the nearest sampled inverse suffix array entry,
+ * so both take at most {@link #SAMPLE_RATE} steps per occurrence.
+ *
+ * @see SuffixArrayAutocomplete
+ * @see Autocomplete
+ */
+public class FMIndex implements Autocomplete {
+    /**
+     * Every text position that is a multiple of this is sampled in the suffix array and its inverse.
+     */
+    private static final int SAMPLE_RATE = 32;
+    /**
+     * Number of BWT rows between occurrence checkpoints, a multiple of the 32 bases packed in each long.
+     */
+    private static final int CHECKPOINT_RATE = 128;
+    /**
+     * The bases in the order of their two-bit codes.
+     */
+    private static final String BASES = "ACGT";
+    /**
+     * The length of the text, not counting the implicit terminator that sorts before every base.
+     */
+    private final int length;
+    /**
+     * The BWT of the text and terminator, 32 two-bit codes per long. The terminator's row holds code 0.
+     */
+    private final long[] bwt;
+    /**
+     * The row of the BWT holding the terminator.
+     */
+    private final int terminator;
+    /**
+     * For each base, the number of rows whose suffix starts with a smaller symbol, including the terminator.
+     */
+    private final int[] first;
+    /**
+     * For each checkpoint and base, the number of occurrences of the base in the BWT before the checkpoint.
+     */
+    private final int[] occurrences;
+    /**
+     * The rows whose suffix array entry is sampled, one bit per row.
+     */
+    private final long[] sampled;
+    /**
+     * For each word of {@link #sampled}, the number of sampled rows before the word.
+     */
+    private final int[] sampledRank;
+    /**
+     * The sampled suffix array entries in row order.
+     */
+    private final int[] samples;
+    /**
+     * The row of the suffix at each multiple of {@link #SAMPLE_RATE}, and then of the terminator.
+     */
+    private final int[] inverseSamples;
+
+    /**
+     * Constructs an index of every suffix of the given DNA text.
+     *
+     * @param text the text to index.
+     * @throws IllegalArgumentException if the text contains characters other than A, C, G and T.
+     */
+    public FMIndex(CharSequence text) {
+        length = text.length();
+        int n = length + 1;
+        int[] s = new int[n];
+        for (int i = 0; i < length; i += 1) {
+            int code = BASES.indexOf(text.charAt(i));
+            if (code < 0) {
+                throw new IllegalArgumentException("Not a DNA base at " + i + ": " + text.charAt(i));
+            }
+            s[i] = code + 1;
+        }
+        // The terminator 0 sorts before every base, so the suffix array of s sorts the suffixes of the text.
+        int[] sa = SuffixArrayAutocomplete.sais(s, BASES.length());
+
+        bwt = new long[(n + 31) / 32];
+        first = new int[BASES.length()];
+        occurrences = new int[((n + CHECKPOINT_RATE - 1) / CHECKPOINT_RATE + 1) * BASES.length()];
+        sampled = new long[(n + 63) / 64];
+        inverseSamples = new int[length / SAMPLE_RATE + 2];
+        int[] counts = new int[BASES.length()];
+        int terminatorRow = 0;
+        int sampleCount = 0;
+        for (int row = 0; row < n; row += 1) {
+            if (row % CHECKPOINT_RATE == 0) {
+                System.arraycopy(counts, 0, occurrences, row / CHECKPOINT_RATE * BASES.length(), BASES.length());
+            }
+            int position = sa[row];
+            if (position == 0) {
+                terminatorRow = row;
+            } else {
+                int code = s[position - 1] - 1;
+                bwt[row / 32] |= (long) code << (2 * (row % 32));
+                counts[code] += 1;
+            }
+            if (position % SAMPLE_RATE == 0) {
+                sampled[row / 64] |= 1L << (row % 64);
+                sampleCount += 1;
+            }
+            if (position % SAMPLE_RATE == 0 || position == length) {
+                inverseSamples[position == length ? inverseSamples.length - 1 : position / SAMPLE_RATE] = row;
+            }
+        }
+        terminator = terminatorRow;
+        System.arraycopy(counts, 0, occurrences, occurrences.length - BASES.length(), BASES.length());
+        for (int c = 0, total = 1; c < BASES.length(); c += 1) {
+            first[c] = total;
+            total += counts[c];
+        }
+        sampledRank = new int[sampled.length];
+        for (int i = 1; i < sampled.length; i += 1) {
+            sampledRank[i] = sampledRank[i - 1] + Long.bitCount(sampled[i - 1]);
+        }
+        samples = new int[sampleCount];
+        for (int row = 0, i = 0; row < n; row += 1) {
+            if (sa[row] % SAMPLE_RATE == 0) {
+                samples[i] = sa[row];
+                i += 1;
+            }
+        }
+    }
+
+    /**
+     * Unsupported: the index is built from a single text by the constructor.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        throw new UnsupportedOperationException("FM-index: construct a new index from the text");
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        return new ArrayList<>(stream(prefix).toList());
+    }
+
+    @Override
+    public Stream<CharSequence> stream(CharSequence prefix) {
+        long range = search(prefix);
+        return IntStream.range((int) (range >>> 32), (int) range).mapToObj(row -> new Suffix(locate(row)));
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        long range = search(prefix);
+        return (int) range - (int) (range >>> 32);
+    }
+
+    /**
+     * Returns the positions in the text at which the given pattern occurs, in sorted order of the following suffixes.
+     *
+     * @param pattern the pattern to locate.
+     * @return the start positions of the occurrences of the pattern.
+     */
+    public int[] locate(CharSequence pattern) {
+        long range = search(pattern);
+        return IntStream.range((int) (range >>> 32), (int) range).map(this::locate).toArray();
+    }
+
+    /**
+     * Returns the given part of the text, read backward from the nearest sampled position after it.
+     *
+     * @param begin the start of the part (inclusive).
+     * @param end   the end of the part (exclusive).
+     * @return the characters of the text between the given indices.
+     * @throws IndexOutOfBoundsException if the indices are out of range.
+     */
+    public String extract(int begin, int end) {
+        if (begin < 0 || begin > end || end > length) {
+            throw new IndexOutOfBoundsException("begin " + begin + ", end " + end + ", length " + length);
+        }
+        int position = (end + SAMPLE_RATE - 1) / SAMPLE_RATE * SAMPLE_RATE;
+        int row;
+        if (position >= length) {
+            position = length;
+            row = inverseSamples[inverseSamples.length - 1];
+        } else {
+            row = inverseSamples[position / SAMPLE_RATE];
+        }
+        char[] result = new char[end - begin];
+        // The BWT at the row of the suffix at position holds the character before it.
+        while (position > begin) {
+            int code = code(row);
+            position -= 1;
+            if (position < end) {
+                result[position - begin] = BASES.charAt(code);
+            }
+            row = first[code] + rank(code, row);
+        }
+        return new String(result);
+    }
+
+    /**
+     * Returns the number of bases in the text.
+     *
+     * @return the number of bases in the text.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Finds the rows of the suffixes starting with the given pattern by backward search.
+     *
+     * @param pattern the pattern to search for.
+     * @return the first row in the high 32 bits and the row after the last in the low 32 bits, which are equal if
+     * there are no matches.
+     */
+    private long search(CharSequence pattern) {
+        if (pattern == null || pattern.isEmpty()) {
+            return 0;
+        }
+        int lo = 0;
+        int hi = length + 1;
+        for (int i = pattern.length() - 1; i >= 0 && lo < hi; i -= 1) {
+            int code = BASES.indexOf(pattern.charAt(i));
+            if (code < 0) {
+                return 0;
+            }
+            lo = first[code] + rank(code, lo);
+            hi = first[code] + rank(code, hi);
+        }
+        return lo < hi ? (long) lo << 32 | hi : 0;
+    }
+
+    /**
+     * Returns the text position of the suffix at the given row by following the LF mapping to a sampled row.
+     *
+     * @param row a row of the BWT.
+     * @return the start position of the suffix at the row.
+     */
+    private int locate(int row) {
+        int steps = 0;
+        while ((sampled[row / 64] & 1L << (row % 64)) == 0) {
+            int code = code(row);
+            row = first[code] + rank(code, row);
+            steps += 1;
+        }
+        int index = sampledRank[row / 64] + Long.bitCount(sampled[row / 64] & ((1L << (row % 64)) - 1));
+        return samples[index] + steps;
+    }
+
+    /**
+     * Returns the number of occurrences of the given base in the BWT before the given row.
+     *
+     * @param code the two-bit code of the base.
+     * @param row  the row, at most the number of rows.
+     * @return the number of occurrences before the row.
+     */
+    private int rank(int code, int row) {
+        int checkpoint = row / CHECKPOINT_RATE;
+        int result = occurrences[checkpoint * BASES.length() + code];
+        // Each code equal to the base becomes 00 after the xor, so both bits of the negated pair are set.
+        long pattern = 0x5555555555555555L * code;
+        for (int word = checkpoint * CHECKPOINT_RATE / 32; word * 32 < row; word += 1) {
+            long x = bwt[word] ^ pattern;
+            long matches = ~(x | x >>> 1) & 0x5555555555555555L;
+            int remaining = row - word * 32;
+            if (remaining < 32) {
+                matches &= (1L << (2 * remaining)) - 1;
+            }
+            result += Long.bitCount(matches);
+        }
+        // The terminator's row holds code 0 but is not a base.
+        if (code == 0 && terminator < row && terminator >= checkpoint * CHECKPOINT_RATE) {
+            result -= 1;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the two-bit code in the BWT at the given row other than the terminator row.
+     */
+    private int code(int row) {
+        return (int) (bwt[row / 32] >>> (2 * (row % 32))) & 3;
+    }
+
+    /**
+     * A suffix of the text whose characters are extracted from the index on demand.
+     */
+    private class Suffix implements CharSequence {
+        private final int offset;
+
+        Suffix(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return extract(offset + index, offset + index + 1).charAt(0);
+        }
+
+        @Override
+        public int length() {
+            return length - offset;
+        }
+
+        @Override
+        public CharSequence subSequence(int begin, int end) {
+            return extract(offset + begin, offset + end);
+        }
+
+        @Override
+        public String toString() {
+            return extract(offset, length);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package autocomplete;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Read-only implementation of the {@link Autocomplete} interface that memory-maps an index file written by
+ * {@link FstBuilder} and answers queries directly from the mapped bytes. Opening an index only maps the file, so
+ * loading is near-instant and the index lives off the Java heap in the operating system page cache.
+ * <p>
+ * Following a prefix through the transducer finds both the state whose accepted terms are its matches and the sorted
+ * ordinal of the first match, so the matches occupy a contiguous range of ordinals. {@link #topMatches} searches the
+ * max segment tree of weights over that range best-first and spells out each selected ordinal by walking the
+ * transducer again.
+ *
+ * @see FstBuilder
+ * @see Autocomplete
+ */
+public class FstAutocomplete implements Autocomplete {
+    /**
+     * The mapped index file.
+     */
+    private final MappedByteBuffer buffer;
+    /**
+     * The number of terms in the index.
+     */
+    private final int size;
+    /**
+     * The number of leaves in the segment tree, a power of two at least the number of terms.
+     */
+    private final int leaves;
+    /**
+     * The absolute position of the root state.
+     */
+    private final int root;
+    /**
+     * The absolute position of the segment tree.
+     */
+    private final int tree;
+
+    /**
+     * Constructs an instance by memory-mapping the given index file.
+     *
+     * @param file the path of an index file written by {@link FstBuilder}.
+     * @throws IOException if the file cannot be read or is not an index file.
+     */
+    public FstAutocomplete(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < FstBuilder.HEADER_BYTES || buffer.getInt(0) != FstBuilder.MAGIC) {
+            throw new IOException("Not an autocomplete index: " + file);
+        }
+        size = buffer.getInt(4);
+        leaves = buffer.getInt(8);
+        root = FstBuilder.HEADER_BYTES + buffer.getInt(12);
+        tree = FstBuilder.HEADER_BYTES + buffer.getInt(16);
+    }
+
+    /**
+     * Unsupported: the index is built offline by {@link FstBuilder}.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        throw new UnsupportedOperationException("Read-only index: build it with FstBuilder");
+    }
+
+    /**
+     * Returns the number of terms in the index.
+     *
+     * @return the number of terms in the index.
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        List<CharSequence> result = new ArrayList<>();
+        if (prefix == null || prefix.isEmpty()) {
+            return result;
+        }
+        long found = find(prefix);
+        if (found >= 0) {
+            collectTerms((int) (found >>> 32), new StringBuilder(prefix), result);
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<CharSequence> stream(CharSequence prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return Stream.empty();
+        }
+        long found = find(prefix);
+        if (found < 0) {
+            return Stream.empty();
+        }
+        // The matches are a contiguous range of ordinals, so the stream is sized and splits by ordinal.
+        int lo = (int) found;
+        return IntStream.range(lo, lo + count((int) (found >>> 32))).mapToObj(this::term);
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return 0;
+        }
+        long found = find(prefix);
+        return found < 0 ? 0 : count((int) (found >>> 32));
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        List<CharSequence> result = new ArrayList<>();
+        if (prefix == null || prefix.isEmpty() || k <= 0) {
+            return result;
+        }
+        long found = find(prefix);
+        if (found < 0) {
+            return result;
+        }
+        int state = (int) (found >>> 32);
+        int lo = (int) found;
+        int hi = lo + count(state);
+        // Start from the canonical segment tree nodes covering [lo, hi) and expand the heaviest node first, so that
+        // leaves come out of the queue in descending order of weight.
+        PriorityQueue<Integer> perimeter = new PriorityQueue<>((a, b) -> Double.compare(max(b), max(a)));
+        for (int l = lo + leaves, r = hi + leaves; l < r; l >>>= 1, r >>>= 1) {
+            if ((l & 1) == 1) {
+                perimeter.add(l++);
+            }
+            if ((r & 1) == 1) {
+                perimeter.add(--r);
+            }
+        }
+        while (!perimeter.isEmpty() && result.size() < k) {
+            int node = perimeter.remove();
+            if (node >= leaves) {
+                result.add(term(node - leaves));
+            } else {
+                perimeter.add(2 * node);
+                perimeter.add(2 * node + 1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the weight of the given term, or {@link Double#NaN} if the index does not contain it.
+     *
+     * @param term the term to look up.
+     * @return the weight of the term.
+     */
+    public double weight(CharSequence term) {
+        long found = find(term);
+        if (found < 0 || !isFinal((int) (found >>> 32))) {
+            return Double.NaN;
+        }
+        return max(leaves + (int) found);
+    }
+
+    /**
+     * Follows the given string from the root.
+     *
+     * @param prefix the string to follow.
+     * @return the position of the reached state in the high 32 bits and the ordinal of the first term it accepts in
+     * the low 32 bits, or -1 if no term starts with the string.
+     */
+    private long find(CharSequence prefix) {
+        int state = root;
+        int ordinal = 0;
+        for (int i = 0; i < prefix.length(); i += 1) {
+            int arc = arc(state, prefix.charAt(i));
+            if (arc < 0) {
+                return -1;
+            }
+            ordinal += buffer.getInt(arc + Character.BYTES);
+            state = target(arc);
+        }
+        return (long) state << 32 | ordinal;
+    }
+
+    /**
+     * Returns the term with the given ordinal by choosing, at each state, the last arc whose output does not exceed
+     * the remaining ordinal.
+     *
+     * @param ordinal the sorted position of the term.
+     * @return the term with the given ordinal.
+     */
+    private String term(int ordinal) {
+        StringBuilder term = new StringBuilder();
+        int state = root;
+        while (ordinal > 0 || !isFinal(state)) {
+            int lo = 0;
+            int hi = arcs(state) - 1;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (buffer.getInt(arcAt(state, mid) + Character.BYTES) <= ordinal) {
+                    lo = mid;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            int arc = arcAt(state, lo);
+            term.append(buffer.getChar(arc));
+            ordinal -= buffer.getInt(arc + Character.BYTES);
+            state = target(arc);
+        }
+        return term.toString();
+    }
+
+    /**
+     * Adds every term accepted from the given state to the result in sorted order.
+     *
+     * @param state the position of the state.
+     * @param term  the characters on the path from the root to the state.
+     * @param result the list of matching terms.
+     */
+    private void collectTerms(int state, StringBuilder term, List<CharSequence> result) {
+        if (isFinal(state)) {
+            result.add(term.toString());
+        }
+        int length = term.length();
+        for (int i = 0; i < arcs(state); i += 1) {
+            int arc = arcAt(state, i);
+            term.append(buffer.getChar(arc));
+            collectTerms(target(arc), term, result);
+            term.setLength(length);
+        }
+    }
+
+    /**
+     * Returns the position of the arc with the given label leaving the given state, or -1 if there is none.
+     */
+    private int arc(int state, char label) {
+        int lo = 0;
+        int hi = arcs(state) - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char c = buffer.getChar(arcAt(state, mid));
+            if (c < label) {
+                lo = mid + 1;
+            } else if (c > label) {
+                hi = mid - 1;
+            } else {
+                return arcAt(state, mid);
+            }
+        }
+        return -1;
+    }
+
+    private boolean isFinal(int state) {
+        return buffer.get(state) != 0;
+    }
+
+    private int count(int state) {
+        return buffer.getInt(state + 1);
+    }
+
+    private int arcs(int state) {
+        return buffer.getInt(state + 1 + Integer.BYTES);
+    }
+
+    private static int arcAt(int state, int i) {
+        return state + FstBuilder.STATE_BYTES + i * FstBuilder.ARC_BYTES;
+    }
+
+    private int target(int arc) {
+        return FstBuilder.HEADER_BYTES + buffer.getInt(arc + Character.BYTES + Integer.BYTES);
+    }
+
+    private double max(int node) {
+        return buffer.getDouble(tree + node * Double.BYTES);
+    }
+}
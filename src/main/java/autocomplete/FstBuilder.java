@@ -0,0 +1,306 @@
+package autocomplete;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Offline builder for the index files read by {@link FstAutocomplete}. Compiles terms added in strictly increasing
+ * order into a minimal acyclic finite-state transducer using the incremental algorithm of Daciuk et al. for sorted
+ * input: states shared by the suffixes of earlier terms are merged as soon as no later term can extend them. Each
+ * state records how many terms it accepts, and each arc outputs the number of terms skipped by taking it, so the
+ * outputs along the path of a prefix sum to the sorted ordinal of its first match. The term weights are stored by
+ * ordinal in a max segment tree so that top-k queries can be answered over the ordinal range of a prefix.
+ *
+ * <p>File layout (big-endian): a header of five ints (magic, term count, segment tree leaf count, root state offset,
+ * state section length), the state section, then the segment tree as {@code 2 * leaves} doubles. Each state is a
+ * flag byte (1 if final), its int term count and int arc count, followed by its arcs sorted by label, each a char
+ * label, an int output and an int target state offset.
+ *
+ * @see FstAutocomplete
+ */
+public class FstBuilder {
+    /**
+     * The magic number identifying an index file.
+     */
+    static final int MAGIC = 0x46535431;
+    /**
+     * Size in bytes of the file header.
+     */
+    static final int HEADER_BYTES = 5 * Integer.BYTES;
+    /**
+     * Size in bytes of a state record before its arcs.
+     */
+    static final int STATE_BYTES = 1 + 2 * Integer.BYTES;
+    /**
+     * Size in bytes of an arc record.
+     */
+    static final int ARC_BYTES = Character.BYTES + 2 * Integer.BYTES;
+    /**
+     * Registry of minimized states, each mapped to itself.
+     */
+    private final Map<State, State> register;
+    /**
+     * The unminimized states along the path of the previous term, starting from the root.
+     */
+    private final List<State> path;
+    /**
+     * The weights of the added terms in order.
+     */
+    private double[] weights;
+    /**
+     * The previous term added, for checking the order of terms.
+     */
+    private String previous;
+    /**
+     * The number of terms added.
+     */
+    private int size;
+
+    /**
+     * Constructs an empty builder.
+     */
+    public FstBuilder() {
+        register = new HashMap<>();
+        path = new ArrayList<>();
+        path.add(new State());
+        weights = new double[16];
+        previous = "";
+        size = 0;
+    }
+
+    /**
+     * Builds an index from a TSV file of terms and integer weights, such as {@code data/cities.tsv}.
+     *
+     * @param args the input TSV path and the output index path.
+     * @throws IOException if the input cannot be read or the output cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: FstBuilder <input.tsv> <output.fst>");
+            System.exit(1);
+        }
+        Map<String, Long> terms = new HashMap<>();
+        try (Scanner input = new Scanner(new FileInputStream(args[0]))) {
+            while (input.hasNextLine()) {
+                Scanner line = new Scanner(input.nextLine()).useDelimiter("\t");
+                terms.merge(line.next(), line.nextLong(), Math::max);
+            }
+        }
+        long start = System.nanoTime();
+        write(terms, Path.of(args[1]));
+        System.out.println("Wrote " + terms.size() + " terms to " + args[1] + " in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Builds an index from the given terms and weights in any order and writes it to the given path.
+     *
+     * @param terms map of terms to their weights.
+     * @param file  the path of the index file.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(Map<? extends CharSequence, ? extends Number> terms, Path file) throws IOException {
+        List<Map.Entry<? extends CharSequence, ? extends Number>> sorted = new ArrayList<>(terms.entrySet());
+        sorted.sort((a, b) -> CharSequence.compare(a.getKey(), b.getKey()));
+        FstBuilder builder = new FstBuilder();
+        for (Map.Entry<? extends CharSequence, ? extends Number> entry : sorted) {
+            builder.add(entry.getKey(), entry.getValue().doubleValue());
+        }
+        builder.write(file);
+    }
+
+    /**
+     * Adds the given term with the given weight.
+     *
+     * @param term   the term to add, which must be greater than every term already added.
+     * @param weight the weight of the term.
+     * @throws IllegalArgumentException if the term is empty or not greater than the previous term.
+     */
+    public void add(CharSequence term, double weight) {
+        String word = term.toString();
+        if (word.isEmpty()) {
+            throw new IllegalArgumentException("Cannot add an empty term");
+        }
+        if (size > 0 && word.compareTo(previous) <= 0) {
+            throw new IllegalArgumentException("Terms must be added in strictly increasing order: "
+                    + word + " after " + previous);
+        }
+        int common = 0;
+        while (common < word.length() && common < previous.length()
+                && word.charAt(common) == previous.charAt(common)) {
+            common += 1;
+        }
+        // No later term can extend the previous term past the common prefix, so that part of its path is final.
+        minimize(common);
+        for (int d = common; d < word.length(); d += 1) {
+            State next = new State();
+            path.get(d).addArc(word.charAt(d), next);
+            path.add(next);
+        }
+        path.get(word.length()).isFinal = true;
+        if (size == weights.length) {
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+        weights[size] = weight;
+        size += 1;
+        previous = word;
+    }
+
+    /**
+     * Minimizes the remaining states and writes the index to the given path.
+     *
+     * @param file the path of the index file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path file) throws IOException {
+        minimize(0);
+        State root = path.get(0);
+        root.freeze();
+        int leaves = 1;
+        while (leaves < size) {
+            leaves *= 2;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            List<State> order = postOrder(root);
+            int offset = 0;
+            for (State state : order) {
+                state.offset = offset;
+                offset += STATE_BYTES + state.arcs * ARC_BYTES;
+            }
+            out.writeInt(MAGIC);
+            out.writeInt(size);
+            out.writeInt(leaves);
+            out.writeInt(root.offset);
+            out.writeInt(offset);
+            for (State state : order) {
+                out.writeByte(state.isFinal ? 1 : 0);
+                out.writeInt(state.count);
+                out.writeInt(state.arcs);
+                // Each arc skips the term ending here, if any, and every term through the earlier arcs.
+                int output = state.isFinal ? 1 : 0;
+                for (int i = 0; i < state.arcs; i += 1) {
+                    out.writeChar(state.labels[i]);
+                    out.writeInt(output);
+                    out.writeInt(state.targets[i].offset);
+                    output += state.targets[i].count;
+                }
+            }
+            double[] tree = new double[2 * leaves];
+            Arrays.fill(tree, Double.NEGATIVE_INFINITY);
+            System.arraycopy(weights, 0, tree, leaves, size);
+            for (int i = leaves - 1; i >= 1; i -= 1) {
+                tree[i] = Math.max(tree[2 * i], tree[2 * i + 1]);
+            }
+            for (double value : tree) {
+                out.writeDouble(value);
+            }
+        }
+    }
+
+    /**
+     * Replaces each state on the path deeper than the given depth with an equivalent registered state, if any, and
+     * registers it otherwise, then truncates the path to the given depth.
+     *
+     * @param depth the length of the path to keep.
+     */
+    private void minimize(int depth) {
+        for (int d = path.size() - 1; d > depth; d -= 1) {
+            State child = path.get(d);
+            child.freeze();
+            State registered = register.putIfAbsent(child, child);
+            if (registered != null) {
+                path.get(d - 1).targets[path.get(d - 1).arcs - 1] = registered;
+            }
+            path.remove(d);
+        }
+    }
+
+    /**
+     * Returns the states reachable from the given root with every state after all of its targets.
+     *
+     * @param root the root state.
+     * @return the reachable states in post-order.
+     */
+    private static List<State> postOrder(State root) {
+        List<State> order = new ArrayList<>();
+        Set<State> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<State> states = new ArrayDeque<>();
+        Deque<Integer> next = new ArrayDeque<>();
+        states.push(root);
+        next.push(0);
+        visited.add(root);
+        while (!states.isEmpty()) {
+            State state = states.peek();
+            int i = next.pop();
+            if (i < state.arcs) {
+                next.push(i + 1);
+                State target = state.targets[i];
+                if (visited.add(target)) {
+                    states.push(target);
+                    next.push(0);
+                }
+            } else {
+                states.pop();
+                order.add(state);
+            }
+        }
+        return order;
+    }
+
+    /**
+     * A state of the transducer under construction. Once frozen, states are compared by their finality and their
+     * arcs, with targets compared by identity since they are already minimized.
+     */
+    private static class State {
+        private boolean isFinal;
+        private char[] labels = new char[0];
+        private State[] targets = new State[0];
+        private int arcs;
+        private int count;
+        private int hash;
+        private int offset;
+
+        void addArc(char label, State target) {
+            if (arcs == labels.length) {
+                int capacity = Math.max(2, arcs * 2);
+                labels = Arrays.copyOf(labels, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+            }
+            labels[arcs] = label;
+            targets[arcs] = target;
+            arcs += 1;
+        }
+
+        /**
+         * Computes the term count and hash code, which must not change once the state is registered.
+         */
+        void freeze() {
+            count = isFinal ? 1 : 0;
+            hash = Boolean.hashCode(isFinal);
+            for (int i = 0; i < arcs; i += 1) {
+                count += targets[i].count;
+                hash = 31 * (31 * hash + labels[i]) + System.identityHashCode(targets[i]);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof State other) || isFinal != other.isFinal || arcs != other.arcs) {
+                return false;
+            }
+            for (int i = 0; i < arcs; i += 1) {
+                if (labels[i] != other.labels[i] || targets[i] != other.targets[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
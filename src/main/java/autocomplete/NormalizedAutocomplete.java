@@ -0,0 +1,170 @@
+package autocomplete;
+
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * Case-, accent- and punctuation-insensitive decorator for an {@link Autocomplete} implementation. Each added term is
+ * folded into a search key once when it is added, and the wrapped implementation only ever stores and compares keys,
+ * so queries pay for folding the prefix once rather than folding terms in the comparison loop. Matching keys are
+ * mapped back to the original display terms before they are returned.
+ *
+ * @see Autocomplete
+ */
+public class NormalizedAutocomplete implements Autocomplete {
+    /**
+     * The wrapped implementation storing the folded keys.
+     */
+    private final Autocomplete keys;
+    /**
+     * Each folded key mapped to the display terms that fold to it.
+     */
+    private final Map<String, List<String>> terms;
+    /**
+     * The weight of each display term.
+     */
+    private final Map<String, Double> weights;
+
+    /**
+     * Constructs an empty instance storing its keys in the given implementation.
+     *
+     * @param keys an empty implementation for storing the folded keys.
+     */
+    public NormalizedAutocomplete(Autocomplete keys) {
+        this.keys = keys;
+        this.terms = new HashMap<>();
+        this.weights = new HashMap<>();
+    }
+
+    /**
+     * Returns the search key for the given text: decomposed and stripped of accents, lowercased, with runs of
+     * whitespace and dashes collapsed to a single space and all other punctuation removed. Curly and straight quotes
+     * therefore fold identically, as do names that differ only in case, accents or punctuation.
+     *
+     * @param text the text to fold.
+     * @return the search key for the text.
+     */
+    public static String fold(CharSequence text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder result = new StringBuilder(decomposed.length());
+        boolean space = false;
+        for (int i = 0; i < decomposed.length(); i += 1) {
+            char c = decomposed.charAt(i);
+            switch (Character.getType(c)) {
+                case Character.NON_SPACING_MARK, Character.COMBINING_SPACING_MARK, Character.ENCLOSING_MARK,
+                     Character.CONNECTOR_PUNCTUATION, Character.START_PUNCTUATION, Character.END_PUNCTUATION,
+                     Character.INITIAL_QUOTE_PUNCTUATION, Character.FINAL_QUOTE_PUNCTUATION,
+                     Character.OTHER_PUNCTUATION -> {
+                }
+                case Character.DASH_PUNCTUATION, Character.SPACE_SEPARATOR -> space = true;
+                default -> {
+                    if (Character.isWhitespace(c)) {
+                        space = true;
+                    } else {
+                        if (space && !result.isEmpty()) {
+                            result.append(' ');
+                        }
+                        space = false;
+                        result.append(Character.toLowerCase(c));
+                    }
+                }
+            }
+        }
+        return result.toString();
+    }
+
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        List<String> added = new ArrayList<>();
+        for (CharSequence term : terms) {
+            String name = term.toString();
+            if (!weights.containsKey(name)) {
+                weights.put(name, 0.0);
+                String key = add(name);
+                // Only pass keys the wrapped implementation has not seen so that it never stores a key twice.
+                if (!key.isEmpty() && this.terms.get(key).size() == 1) {
+                    added.add(key);
+                }
+            }
+        }
+        keys.addAll(added);
+    }
+
+    @Override
+    public void addAll(Map<? extends CharSequence, ? extends Number> terms) {
+        Map<String, Double> added = new HashMap<>();
+        for (Map.Entry<? extends CharSequence, ? extends Number> entry : terms.entrySet()) {
+            String name = entry.getKey().toString();
+            String key = weights.containsKey(name) ? fold(name) : add(name);
+            weights.put(name, entry.getValue().doubleValue());
+            // Existing keys are passed again so that the wrapped implementation updates their weights.
+            if (!key.isEmpty()) {
+                added.put(key, null);
+            }
+        }
+        // A key is as heavy as the heaviest display term folding to it.
+        for (Map.Entry<String, Double> entry : added.entrySet()) {
+            double weight = Double.NEGATIVE_INFINITY;
+            for (String name : this.terms.get(entry.getKey())) {
+                weight = Math.max(weight, weights.get(name));
+            }
+            entry.setValue(weight);
+        }
+        keys.addAll(added);
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        List<CharSequence> result = new ArrayList<>();
+        if (prefix == null) {
+            return result;
+        }
+        for (CharSequence key : keys.allMatches(fold(prefix))) {
+            result.addAll(terms.get(key.toString()));
+        }
+        return result;
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        if (prefix == null) {
+            return new ArrayList<>();
+        }
+        return resolve(keys.topMatches(fold(prefix), k), k);
+    }
+
+    /**
+     * Returns up to the given number of display terms for the given keys in descending order of weight. If the keys
+     * are the k heaviest keys matching a query, the result is the k heaviest display terms matching it, since a key is
+     * as heavy as its heaviest display term.
+     *
+     * @param keys folded keys returned by a search of the wrapped implementation.
+     * @param k    the maximum number of terms to return.
+     * @return a list of up to k display terms in descending order of weight.
+     */
+    public List<CharSequence> resolve(List<? extends CharSequence> keys, int k) {
+        List<CharSequence> result = new ArrayList<>();
+        for (CharSequence key : keys) {
+            result.addAll(terms.get(key.toString()));
+        }
+        result.sort(Comparator.comparingDouble((CharSequence name) -> weights.get(name.toString())).reversed());
+        if (result.size() > k) {
+            return new ArrayList<>(result.subList(0, k));
+        }
+        return result;
+    }
+
+    /**
+     * Records the display term under its key unless the key is empty, since an empty key cannot be searched.
+     *
+     * @param name a display term that has not been added before.
+     * @return the key for the display term.
+     */
+    private String add(String name) {
+        String key = fold(name);
+        if (!key.isEmpty()) {
+            terms.computeIfAbsent(key, ignored -> new ArrayList<>(1)).add(name);
+        }
+        return key;
+    }
+}
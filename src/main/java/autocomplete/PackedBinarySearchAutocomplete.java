@@ -0,0 +1,177 @@
+package autocomplete;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Binary search implementation of the {@link Autocomplete} interface that packs every term into a single UTF-8
+ * {@code byte[]} arena in sorted order, with an {@code int[]} table of the offset of each term. Storing n terms takes
+ * two arrays rather than n {@link String} objects, and searches compare the query's bytes directly against the arena
+ * without allocating. Strings are only decoded for the returned matches.
+ * <p>
+ * Terms are ordered by their UTF-8 bytes, which is Unicode code point order. This agrees with
+ * {@link CharSequence#compare} except for supplementary characters, so matches may be returned in a slightly
+ * different order than by {@link BinarySearchAutocomplete}.
+ *
+ * @see BinarySearchAutocomplete
+ * @see Autocomplete
+ */
+public class PackedBinarySearchAutocomplete implements Autocomplete {
+    /**
+     * The UTF-8 bytes of every term, concatenated in sorted order.
+     */
+    private byte[] arena;
+    /**
+     * The offset of each term in the arena, followed by the length of the arena.
+     */
+    private int[] offsets;
+
+    /**
+     * Constructs an empty instance.
+     */
+    public PackedBinarySearchAutocomplete() {
+        arena = new byte[0];
+        offsets = new int[1];
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the new terms are sorted. They are then merged with the existing terms into a new arena in linear time.
+     */
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        byte[][] batch = new byte[terms.size()][];
+        int bytes = 0;
+        int b = 0;
+        for (CharSequence term : terms) {
+            batch[b] = term.toString().getBytes(StandardCharsets.UTF_8);
+            bytes += batch[b].length;
+            b += 1;
+        }
+        Arrays.sort(batch, Arrays::compareUnsigned);
+
+        int size = size();
+        byte[] mergedArena = new byte[arena.length + bytes];
+        int[] mergedOffsets = new int[size + batch.length + 1];
+        int i = 0;
+        int j = 0;
+        int end = 0;
+        for (int k = 0; k < size + batch.length; k += 1) {
+            mergedOffsets[k] = end;
+            if (j == batch.length || i < size && compareTo(i, batch[j]) <= 0) {
+                int length = offsets[i + 1] - offsets[i];
+                System.arraycopy(arena, offsets[i], mergedArena, end, length);
+                end += length;
+                i += 1;
+            } else {
+                System.arraycopy(batch[j], 0, mergedArena, end, batch[j].length);
+                end += batch[j].length;
+                j += 1;
+            }
+        }
+        mergedOffsets[size + batch.length] = end;
+        arena = mergedArena;
+        offsets = mergedOffsets;
+    }
+
+    /**
+     * Returns the number of terms.
+     *
+     * @return the number of terms.
+     */
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        return new ArrayList<>(stream(prefix).toList());
+    }
+
+    @Override
+    public Stream<CharSequence> stream(CharSequence prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return Stream.empty();
+        }
+        byte[] query = prefix.toString().getBytes(StandardCharsets.UTF_8);
+        int start = lowerBound(query);
+        return IntStream.range(start, upperBound(query, start)).mapToObj(this::term);
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return 0;
+        }
+        byte[] query = prefix.toString().getBytes(StandardCharsets.UTF_8);
+        int start = lowerBound(query);
+        return upperBound(query, start) - start;
+    }
+
+    /**
+     * Returns the index of the first term that is not less than the given query.
+     *
+     * @param query the UTF-8 bytes of the prefix.
+     * @return the index of the first term that could match the prefix.
+     */
+    private int lowerBound(byte[] query) {
+        int lo = 0;
+        int hi = size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compareTo(mid, query) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the index after the last term that starts with the given query, searching from the given lower bound.
+     *
+     * @param query the UTF-8 bytes of the prefix.
+     * @param start the lower bound of the matching terms.
+     * @return the index after the last term that matches the prefix.
+     */
+    private int upperBound(byte[] query, int start) {
+        int lo = start;
+        int hi = size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (startsWith(mid, query)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Compares the term at the given index with the given bytes as unsigned bytes.
+     */
+    private int compareTo(int index, byte[] bytes) {
+        return Arrays.compareUnsigned(arena, offsets[index], offsets[index + 1], bytes, 0, bytes.length);
+    }
+
+    /**
+     * Returns whether the term at the given index starts with the given bytes.
+     */
+    private boolean startsWith(int index, byte[] bytes) {
+        int from = offsets[index];
+        return offsets[index + 1] - from >= bytes.length
+                && Arrays.equals(arena, from, from + bytes.length, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Decodes the term at the given index.
+     */
+    private String term(int index) {
+        return new String(arena, offsets[index], offsets[index + 1] - offsets[index], StandardCharsets.UTF_8);
+    }
+}
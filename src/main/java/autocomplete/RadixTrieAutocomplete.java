@@ -0,0 +1,236 @@
+package autocomplete;
+
+import java.util.*;
+
+/**
+ * Compressed radix (Patricia) trie implementation of the {@link Autocomplete} interface. Each edge is labeled with a
+ * substring rather than a single character, so terms share storage for common prefixes and chains of nodes with only
+ * one child are collapsed into a single edge. The children of a node are kept sorted by the first character of their
+ * labels and found by binary search, so finding the node for a prefix takes time proportional to the prefix length
+ * (times a logarithmic factor in the alphabet size).
+ *
+ * @see Autocomplete
+ */
+public class RadixTrieAutocomplete implements Autocomplete {
+    /**
+     * The overall root of the trie, whose label is empty.
+     */
+    private final Node overallRoot;
+
+    /**
+     * Constructs an empty instance.
+     */
+    public RadixTrieAutocomplete() {
+        overallRoot = new Node("");
+    }
+
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        for (CharSequence term : terms) {
+            put(term);
+        }
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        List<CharSequence> result = new ArrayList<>();
+        if (prefix == null || prefix.isEmpty()) {
+            return result;
+        }
+        StringBuilder term = new StringBuilder(prefix.length());
+        Node x = find(prefix, term);
+        if (x != null) {
+            collectTerms(x, term, result);
+        }
+        return result;
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return 0;
+        }
+        Node x = find(prefix, null);
+        return x == null ? 0 : x.count;
+    }
+
+    /**
+     * Returns the highest node whose path from the overall root starts with the given prefix, or null if no term
+     * starts with the prefix.
+     *
+     * @param prefix search query.
+     * @param term   if not null, receives the characters on the path from the overall root to the returned node.
+     * @return the root of the subtree of matching terms, or null.
+     */
+    private Node find(CharSequence prefix, StringBuilder term) {
+        Node x = overallRoot;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node child = x.child(prefix.charAt(i));
+            if (child == null) {
+                return null;
+            }
+            // Compare the rest of the edge label, which may extend past the end of the prefix
+            int j = 1;
+            while (j < child.label.length() && i + j < prefix.length()) {
+                if (child.label.charAt(j) != prefix.charAt(i + j)) {
+                    return null;
+                }
+                j += 1;
+            }
+            if (term != null) {
+                term.append(child.label);
+            }
+            i += child.label.length();
+            x = child;
+        }
+        return x;
+    }
+
+    /**
+     * Adds every term in the subtree of the given node to the result in sorted order.
+     *
+     * @param x      the root of the subtree.
+     * @param term   the characters on the path from the overall root to and including x.
+     * @param result the list of matching terms.
+     */
+    private static void collectTerms(Node x, StringBuilder term, List<CharSequence> result) {
+        if (x.isTerm) {
+            result.add(term.toString());
+        }
+        int length = term.length();
+        for (int i = 0; i < x.size; i += 1) {
+            term.append(x.children[i].label);
+            collectTerms(x.children[i], term, result);
+            term.setLength(length);
+        }
+    }
+
+    /**
+     * Adds the given term, splitting an edge if the term diverges from it partway through its label.
+     *
+     * @param term the term to add.
+     */
+    private void put(CharSequence term) {
+        if (term.isEmpty()) {
+            throw new IllegalArgumentException("Calling put with no terms to add");
+        }
+        List<Node> path = new ArrayList<>();
+        Node x = overallRoot;
+        int i = 0;
+        while (i < term.length()) {
+            path.add(x);
+            int index = x.indexOf(term.charAt(i));
+            if (index < 0) {
+                Node leaf = new Node(term.subSequence(i, term.length()).toString());
+                leaf.isTerm = true;
+                leaf.count = 1;
+                x.insert(-(index + 1), leaf);
+                increment(path);
+                return;
+            }
+            Node child = x.children[index];
+            String label = child.label;
+            int j = 1;
+            while (j < label.length() && i + j < term.length() && label.charAt(j) == term.charAt(i + j)) {
+                j += 1;
+            }
+            if (j < label.length()) {
+                // The term ends or diverges inside the label: split the edge at the first differing character.
+                Node split = new Node(label.substring(0, j));
+                split.count = child.count;
+                child.label = label.substring(j);
+                split.insert(0, child);
+                x.children[index] = split;
+                child = split;
+            }
+            x = child;
+            i += j;
+        }
+        if (!x.isTerm) {
+            x.isTerm = true;
+            path.add(x);
+            increment(path);
+        }
+    }
+
+    /**
+     * Counts a new term in every node on the path to it.
+     *
+     * @param path the nodes from the overall root to the new term.
+     */
+    private static void increment(List<Node> path) {
+        for (Node node : path) {
+            node.count += 1;
+        }
+    }
+
+    /**
+     * A node in the trie reached by an edge with a nonempty label, except for the overall root.
+     */
+    private static class Node {
+        /**
+         * The substring labeling the edge from the parent to this node.
+         */
+        private String label;
+        /**
+         * Whether the path from the overall root to this node spells an autocompletion term.
+         */
+        private boolean isTerm;
+        /**
+         * The number of terms in the subtree of this node, including this node.
+         */
+        private int count;
+        /**
+         * The first character of each child's label in sorted order, parallel to children.
+         */
+        private char[] keys;
+        /**
+         * The children sorted by the first character of their labels.
+         */
+        private Node[] children;
+        /**
+         * The number of children.
+         */
+        private int size;
+
+        Node(String label) {
+            this.label = label;
+            this.isTerm = false;
+            this.keys = new char[0];
+            this.children = new Node[0];
+            this.size = 0;
+        }
+
+        /**
+         * Returns the index of the child whose label starts with the given character, or (-(insertion point) - 1).
+         */
+        int indexOf(char c) {
+            return Arrays.binarySearch(keys, 0, size, c);
+        }
+
+        /**
+         * Returns the child whose label starts with the given character, or null if there is no such child.
+         */
+        Node child(char c) {
+            int index = indexOf(c);
+            return index < 0 ? null : children[index];
+        }
+
+        /**
+         * Inserts the given child at the given index, shifting later children to the right.
+         */
+        void insert(int index, Node child) {
+            if (size == keys.length) {
+                int capacity = Math.max(2, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(children, index, children, index + 1, size - index);
+            keys[index] = child.label.charAt(0);
+            children[index] = child;
+            size += 1;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package autocomplete;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Sharded implementation of the {@link Autocomplete} interface for very large dictionaries. Terms are partitioned
+ * into contiguous ranges of sorted order, each stored in its own shard created by a wrapped implementation, so shards
+ * are built in parallel and a prefix only touches the shards whose ranges can contain its matches. The range
+ * boundaries are quantiles of the first batch of added terms, so each shard starts with about the same number of terms.
+ * <p>
+ * Long prefixes usually fall within a single shard and are answered by it directly. Short prefixes spanning several
+ * shards query them concurrently on a dedicated executor rather than the common fork-join pool, so fan-out does not
+ * compete with unrelated parallel streams. {@link #allMatches} concatenates the results in shard order, and
+ * {@link #topMatches} merges the {@link #weightedTopMatches weighted top matches} of each shard with a k-way merge.
+ * The weights come from the shards, so shards should store weights and override
+ * {@link Autocomplete#weightedTopMatches}, as {@link TernarySearchTreeAutocomplete} does; otherwise every match has
+ * weight 0 and the merge keeps shard order.
+ *
+ * @see Autocomplete
+ */
+public class ShardedAutocomplete implements Autocomplete {
+    /**
+     * The executor shared by instances that are not given one, with one daemon thread per processor.
+     */
+    private static final ExecutorService FAN_OUT = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "shard-fan-out");
+                thread.setDaemon(true);
+                return thread;
+            });
+    /**
+     * The shards in order of their ranges.
+     */
+    private final Autocomplete[] shards;
+    /**
+     * Runs the queries and additions of each shard.
+     */
+    private final Executor executor;
+    /**
+     * The first term of each shard after the first, or null until the first terms are added.
+     */
+    private String[] boundaries;
+
+    /**
+     * Constructs an empty instance with the given number of shards created by the given factory, querying the shards
+     * on a shared executor with one thread per processor.
+     *
+     * @param factory creates an empty implementation for storing the terms of a shard.
+     * @param count   the number of shards.
+     * @throws IllegalArgumentException if the number of shards is not positive.
+     */
+    public ShardedAutocomplete(Supplier<? extends Autocomplete> factory, int count) {
+        this(factory, count, FAN_OUT);
+    }
+
+    /**
+     * Constructs an empty instance with the given number of shards created by the given factory, querying the shards
+     * on the given executor.
+     *
+     * @param factory  creates an empty implementation for storing the terms of a shard.
+     * @param count    the number of shards.
+     * @param executor runs the queries and additions of each shard.
+     * @throws IllegalArgumentException if the number of shards is not positive.
+     */
+    public ShardedAutocomplete(Supplier<? extends Autocomplete> factory, int count, Executor executor) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Number of shards must be positive: " + count);
+        }
+        shards = new Autocomplete[count];
+        for (int i = 0; i < count; i += 1) {
+            shards[i] = factory.get();
+        }
+        this.executor = executor;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The first call chooses the range boundaries from the given terms. Each shard then adds its terms in parallel.
+     */
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        chooseBoundaries(terms);
+        List<List<CharSequence>> parts = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i += 1) {
+            parts.add(new ArrayList<>());
+        }
+        for (CharSequence term : terms) {
+            parts.get(shardOf(term)).add(term);
+        }
+        fanOut(0, shards.length - 1, i -> {
+            if (!parts.get(i).isEmpty()) {
+                shards[i].addAll(parts.get(i));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The first call chooses the range boundaries from the given terms. Each shard then adds its terms in parallel.
+     */
+    @Override
+    public void addAll(Map<? extends CharSequence, ? extends Number> terms) {
+        chooseBoundaries(terms.keySet());
+        List<Map<CharSequence, Number>> parts = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i += 1) {
+            parts.add(new HashMap<>());
+        }
+        for (Map.Entry<? extends CharSequence, ? extends Number> entry : terms.entrySet()) {
+            parts.get(shardOf(entry.getKey())).put(entry.getKey(), entry.getValue());
+        }
+        fanOut(0, shards.length - 1, i -> {
+            if (!parts.get(i).isEmpty()) {
+                shards[i].addAll(parts.get(i));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Chooses the range boundaries as quantiles of the given terms unless they have already been chosen.
+     *
+     * @param terms the first batch of added terms.
+     */
+    private void chooseBoundaries(Collection<? extends CharSequence> terms) {
+        if (boundaries != null || terms.isEmpty()) {
+            return;
+        }
+        String[] sorted = terms.stream().map(CharSequence::toString).toArray(String[]::new);
+        Arrays.parallelSort(sorted, CharSequence::compare);
+        boundaries = new String[shards.length - 1];
+        for (int i = 1; i < shards.length; i += 1) {
+            boundaries[i - 1] = sorted[(int) ((long) i * sorted.length / shards.length)];
+        }
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        List<CharSequence> result = new ArrayList<>();
+        for (List<CharSequence> matches : fanOut(prefix, shard -> shard.allMatches(prefix))) {
+            result.addAll(matches);
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<CharSequence> stream(CharSequence prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return Stream.empty();
+        }
+        return IntStream.range(first(prefix), last(prefix) + 1).boxed().flatMap(i -> shards[i].stream(prefix));
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        int result = 0;
+        for (int count : fanOut(prefix, shard -> shard.countMatches(prefix))) {
+            result += count;
+        }
+        return result;
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        List<CharSequence> result = new ArrayList<>();
+        for (WeightedTerm term : weightedTopMatches(prefix, k)) {
+            result.add(term.term());
+        }
+        return result;
+    }
+
+    @Override
+    public List<WeightedTerm> weightedTopMatches(CharSequence prefix, int k) {
+        List<WeightedTerm> result = new ArrayList<>();
+        if (k <= 0) {
+            return result;
+        }
+        List<List<WeightedTerm>> matches = fanOut(prefix, shard -> shard.weightedTopMatches(prefix, k));
+        if (matches.size() == 1) {
+            return matches.get(0);
+        }
+        // Each shard's matches are in descending order of weight, so repeatedly take the heaviest next match of any
+        // shard, breaking ties by shard order.
+        int[] next = new int[matches.size()];
+        PriorityQueue<Integer> heads = new PriorityQueue<>(Comparator
+                .comparingDouble((Integer i) -> -matches.get(i).get(next[i]).weight())
+                .thenComparingInt(i -> i));
+        for (int i = 0; i < matches.size(); i += 1) {
+            if (!matches.get(i).isEmpty()) {
+                heads.add(i);
+            }
+        }
+        while (!heads.isEmpty() && result.size() < k) {
+            int i = heads.remove();
+            result.add(matches.get(i).get(next[i]));
+            next[i] += 1;
+            if (next[i] < matches.get(i).size()) {
+                heads.add(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Applies the given query to each shard that can contain matches of the given prefix, concurrently if there are
+     * several.
+     *
+     * @param prefix search query.
+     * @param query  the query to apply to a shard.
+     * @param <T>    the type of the query result.
+     * @return the results of the query in shard order, or an empty list if the prefix is null or empty.
+     */
+    private <T> List<T> fanOut(CharSequence prefix, Function<Autocomplete, T> query) {
+        if (prefix == null || prefix.isEmpty()) {
+            return List.of();
+        }
+        return fanOut(first(prefix), last(prefix), i -> query.apply(shards[i]));
+    }
+
+    /**
+     * Applies the given task to each shard index in the given range on the executor, except the first, which runs on
+     * the calling thread while the others are in flight.
+     *
+     * @param first the index of the first shard.
+     * @param last  the index of the last shard.
+     * @param task  the task to apply to a shard index.
+     * @param <T>   the type of the task result.
+     * @return the results of the task in shard order.
+     */
+    private <T> List<T> fanOut(int first, int last, IntFunction<T> task) {
+        if (first == last) {
+            return Collections.singletonList(task.apply(first));
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(last - first);
+        for (int i = first + 1; i <= last; i += 1) {
+            int shard = i;
+            futures.add(CompletableFuture.supplyAsync(() -> task.apply(shard), executor));
+        }
+        List<T> result = new ArrayList<>(last - first + 1);
+        result.add(task.apply(first));
+        try {
+            for (CompletableFuture<T> future : futures) {
+                result.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index of the shard whose range contains the given term.
+     */
+    private int shardOf(CharSequence term) {
+        if (boundaries == null) {
+            return 0;
+        }
+        // The number of boundaries that are at most the term.
+        int lo = 0;
+        int hi = boundaries.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (CharSequence.compare(boundaries[mid], term) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the index of the first shard that can contain matches of the given prefix.
+     */
+    private int first(CharSequence prefix) {
+        return shardOf(prefix);
+    }
+
+    /**
+     * Returns the index of the last shard that can contain matches of the given prefix. Every later shard starts with
+     * a term that is greater than the prefix and does not start with it, so it contains no matches.
+     */
+    private int last(CharSequence prefix) {
+        int last = first(prefix);
+        while (boundaries != null && last < boundaries.length && Autocomplete.isPrefixOf(prefix, boundaries[last])) {
+            last += 1;
+        }
+        return last;
+    }
+}
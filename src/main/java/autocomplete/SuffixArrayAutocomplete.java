@@ -0,0 +1,393 @@
+package autocomplete;
+
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Suffix array implementation of the {@link Autocomplete} interface over every suffix of a single text, such as a
+ * genome. The suffix array is a primitive {@code int[]} of suffix start positions in sorted order, built in linear
+ * time by induced sorting (SA-IS), so the index costs a few ints per character instead of one object per suffix.
+ * <p>
+ * Matches of a prefix are a contiguous range of the suffix array found by two binary searches. Each search keeps the
+ * length of the longest common prefix (LCP) between the query and both ends of its range, and consults precomputed
+ * LCPs between each midpoint and the ends of its range (LCP-LR) to skip characters already known to match, so a
+ * search compares O(m + log n) characters for a query of length m rather than O(m log n).
+ *
+ * @see Autocomplete
+ */
+public class SuffixArrayAutocomplete implements Autocomplete {
+    /**
+     * The indexed text, which is read through the {@link CharSequence} interface so that it need not be on the heap.
+     */
+    private final CharSequence text;
+    /**
+     * The start positions of the suffixes of the text in sorted order.
+     */
+    private final int[] sa;
+    /**
+     * For each midpoint visited by the binary search, the LCP of its suffix with the suffix at the left end of the
+     * search range.
+     */
+    private final int[] llcp;
+    /**
+     * For each midpoint visited by the binary search, the LCP of its suffix with the suffix at the right end of the
+     * search range.
+     */
+    private final int[] rlcp;
+
+    /**
+     * Constructs an index of every suffix of the given text, which must not change afterward.
+     *
+     * @param text the text to index.
+     */
+    public SuffixArrayAutocomplete(CharSequence text) {
+        this.text = text;
+        int n = text.length();
+        // Replace each character by its rank among the distinct characters of the text.
+        int[] s = new int[n];
+        BitSet present = new BitSet(Character.MAX_VALUE + 1);
+        for (int i = 0; i < n; i += 1) {
+            s[i] = text.charAt(i);
+            present.set(s[i]);
+        }
+        int[] rank = new int[Character.MAX_VALUE + 1];
+        int upper = -1;
+        for (int c = present.nextSetBit(0); c >= 0; c = present.nextSetBit(c + 1)) {
+            upper += 1;
+            rank[c] = upper;
+        }
+        for (int i = 0; i < n; i += 1) {
+            s[i] = rank[s[i]];
+        }
+        sa = sais(s, Math.max(upper, 0));
+        int[] lcp = kasai(s, sa);
+        llcp = new int[n];
+        rlcp = new int[n];
+        lcpLR(lcp, -1, n);
+    }
+
+    /**
+     * Unsupported: the index is built from a single text by the constructor.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        throw new UnsupportedOperationException("Suffix array: construct a new index from the text");
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        return new ArrayList<>(stream(prefix).toList());
+    }
+
+    @Override
+    public Stream<CharSequence> stream(CharSequence prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return Stream.empty();
+        }
+        int lo = search(prefix, false);
+        return IntStream.range(lo, search(prefix, true)).mapToObj(i -> new Suffix(sa[i]));
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return 0;
+        }
+        return search(prefix, true) - search(prefix, false);
+    }
+
+    /**
+     * Returns the positions in the text at which the given pattern occurs, in sorted order of the following suffixes.
+     *
+     * @param pattern the pattern to locate.
+     * @return the start positions of the occurrences of the pattern.
+     */
+    public int[] locate(CharSequence pattern) {
+        if (pattern == null || pattern.isEmpty()) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(sa, search(pattern, false), search(pattern, true));
+    }
+
+    /**
+     * Returns the first rank in the suffix array whose suffix is not less than the pattern, or with upper, the first
+     * rank whose suffix is greater than the pattern and does not start with it.
+     *
+     * @param pattern the nonempty search pattern.
+     * @param upper   whether to find the end rather than the start of the range of suffixes starting with the pattern.
+     * @return the lower or upper bound of the suffixes starting with the pattern.
+     */
+    private int search(CharSequence pattern, boolean upper) {
+        int m = pattern.length();
+        // Invariant: the suffix at L is before the bound and the suffix at R is at or after it, where -1 and n are
+        // virtual ends. l and r are the LCPs of the pattern with the suffixes at L and R.
+        int lo = -1;
+        int hi = sa.length;
+        int l = 0;
+        int r = 0;
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            int k;
+            if (l >= r) {
+                // The suffix at mid agrees with the suffix at L for llcp[mid] characters, and the suffix at L differs
+                // from the pattern at l, so unless llcp[mid] equals l the outcome is known without comparing.
+                if (llcp[mid] > l) {
+                    lo = mid;
+                    continue;
+                } else if (llcp[mid] < l) {
+                    hi = mid;
+                    r = llcp[mid];
+                    continue;
+                }
+                k = l;
+            } else {
+                if (rlcp[mid] > r) {
+                    hi = mid;
+                    continue;
+                } else if (rlcp[mid] < r) {
+                    lo = mid;
+                    l = rlcp[mid];
+                    continue;
+                }
+                k = r;
+            }
+            int start = sa[mid];
+            while (k < m && start + k < text.length() && text.charAt(start + k) == pattern.charAt(k)) {
+                k += 1;
+            }
+            boolean before;
+            if (k == m) {
+                // The suffix starts with the pattern: before the end of the range, but not before its start.
+                before = upper;
+            } else {
+                before = start + k == text.length() || text.charAt(start + k) < pattern.charAt(k);
+            }
+            if (before) {
+                lo = mid;
+                l = k;
+            } else {
+                hi = mid;
+                r = k;
+            }
+        }
+        return hi;
+    }
+
+    /**
+     * Fills in the LCP-LR arrays for every midpoint the binary search can visit within the range (lo, hi).
+     *
+     * @param lcp the LCP of each suffix with the previous suffix in sorted order.
+     * @param lo  the left end of the range, or -1.
+     * @param hi  the right end of the range, or n.
+     * @return the LCP of the suffixes at lo and hi, or 0 if either end is virtual.
+     */
+    private int lcpLR(int[] lcp, int lo, int hi) {
+        if (hi - lo == 1) {
+            return lo < 0 || hi == sa.length ? 0 : lcp[hi];
+        }
+        int mid = (lo + hi) >>> 1;
+        llcp[mid] = lcpLR(lcp, lo, mid);
+        rlcp[mid] = lcpLR(lcp, mid, hi);
+        return Math.min(llcp[mid], rlcp[mid]);
+    }
+
+    /**
+     * Returns the LCP of each suffix with the previous suffix in sorted order using Kasai's linear-time algorithm.
+     *
+     * @param s  the text.
+     * @param sa the suffix array of the text.
+     * @return the LCP array, with 0 for the first suffix.
+     */
+    private static int[] kasai(int[] s, int[] sa) {
+        int n = s.length;
+        int[] rank = new int[n];
+        for (int i = 0; i < n; i += 1) {
+            rank[sa[i]] = i;
+        }
+        int[] lcp = new int[n];
+        int h = 0;
+        for (int i = 0; i < n; i += 1) {
+            if (rank[i] == 0) {
+                h = 0;
+                continue;
+            }
+            int j = sa[rank[i] - 1];
+            while (i + h < n && j + h < n && s[i + h] == s[j + h]) {
+                h += 1;
+            }
+            lcp[rank[i]] = h;
+            if (h > 0) {
+                h -= 1;
+            }
+        }
+        return lcp;
+    }
+
+    /**
+     * Returns the suffix array of the given text using the SA-IS induced sorting algorithm of Nong, Zhang and Chan.
+     * Suffixes are classified as S-type (smaller than the next suffix) or L-type; the leftmost S-type suffixes (LMS)
+     * are sorted approximately, used to induce the order of the rest, and then sorted exactly by recursing on a
+     * shorter text naming each LMS substring.
+     *
+     * @param s     the text with characters between 0 and upper.
+     * @param upper the largest character.
+     * @return the suffix array of the text.
+     */
+    static int[] sais(int[] s, int upper) {
+        int n = s.length;
+        if (n == 0) {
+            return new int[0];
+        } else if (n == 1) {
+            return new int[]{0};
+        } else if (n == 2) {
+            return s[0] < s[1] ? new int[]{0, 1} : new int[]{1, 0};
+        }
+        int[] sa = new int[n];
+        boolean[] ls = new boolean[n];
+        for (int i = n - 2; i >= 0; i -= 1) {
+            ls[i] = s[i] == s[i + 1] ? ls[i + 1] : s[i] < s[i + 1];
+        }
+        // Bucket boundaries: sumL[c] is the start of bucket c, and sumS[c] is the start of its S-type part.
+        int[] sumL = new int[upper + 2];
+        int[] sumS = new int[upper + 2];
+        for (int i = 0; i < n; i += 1) {
+            if (!ls[i]) {
+                sumS[s[i]] += 1;
+            } else {
+                sumL[s[i] + 1] += 1;
+            }
+        }
+        for (int i = 0; i <= upper; i += 1) {
+            sumS[i] += sumL[i];
+            if (i < upper) {
+                sumL[i + 1] += sumS[i];
+            }
+        }
+        int[] lmsMap = new int[n + 1];
+        Arrays.fill(lmsMap, -1);
+        int m = 0;
+        for (int i = 1; i < n; i += 1) {
+            if (!ls[i - 1] && ls[i]) {
+                lmsMap[i] = m;
+                m += 1;
+            }
+        }
+        int[] lms = new int[m];
+        for (int i = 1, j = 0; i < n; i += 1) {
+            if (!ls[i - 1] && ls[i]) {
+                lms[j] = i;
+                j += 1;
+            }
+        }
+        induce(s, upper, sa, ls, sumL, sumS, lms);
+        if (m > 0) {
+            int[] sortedLms = new int[m];
+            for (int i = 0, j = 0; i < n; i += 1) {
+                if (lmsMap[sa[i]] != -1) {
+                    sortedLms[j] = sa[i];
+                    j += 1;
+                }
+            }
+            // Name each LMS substring by its rank among the distinct LMS substrings.
+            int[] recursive = new int[m];
+            int recursiveUpper = 0;
+            recursive[lmsMap[sortedLms[0]]] = 0;
+            for (int i = 1; i < m; i += 1) {
+                int l = sortedLms[i - 1];
+                int r = sortedLms[i];
+                int endL = lmsMap[l] + 1 < m ? lms[lmsMap[l] + 1] : n;
+                int endR = lmsMap[r] + 1 < m ? lms[lmsMap[r] + 1] : n;
+                boolean same = true;
+                if (endL - l != endR - r) {
+                    same = false;
+                } else {
+                    while (l < endL && s[l] == s[r]) {
+                        l += 1;
+                        r += 1;
+                    }
+                    if (l == n || s[l] != s[r]) {
+                        same = false;
+                    }
+                }
+                if (!same) {
+                    recursiveUpper += 1;
+                }
+                recursive[lmsMap[sortedLms[i]]] = recursiveUpper;
+            }
+            int[] recursiveSa = sais(recursive, recursiveUpper);
+            for (int i = 0; i < m; i += 1) {
+                sortedLms[i] = lms[recursiveSa[i]];
+            }
+            induce(s, upper, sa, ls, sumL, sumS, sortedLms);
+        }
+        return sa;
+    }
+
+    /**
+     * Places the given LMS suffixes at the ends of their buckets, then induces the order of the L-type suffixes by a
+     * left-to-right scan and the S-type suffixes by a right-to-left scan.
+     */
+    private static void induce(int[] s, int upper, int[] sa, boolean[] ls, int[] sumL, int[] sumS, int[] lms) {
+        int n = s.length;
+        Arrays.fill(sa, -1);
+        int[] buf = Arrays.copyOf(sumS, upper + 1);
+        for (int d : lms) {
+            if (d != n) {
+                sa[buf[s[d]]] = d;
+                buf[s[d]] += 1;
+            }
+        }
+        buf = Arrays.copyOf(sumL, upper + 2);
+        sa[buf[s[n - 1]]] = n - 1;
+        buf[s[n - 1]] += 1;
+        for (int i = 0; i < n; i += 1) {
+            int v = sa[i];
+            if (v >= 1 && !ls[v - 1]) {
+                sa[buf[s[v - 1]]] = v - 1;
+                buf[s[v - 1]] += 1;
+            }
+        }
+        buf = Arrays.copyOf(sumL, upper + 2);
+        for (int i = n - 1; i >= 0; i -= 1) {
+            int v = sa[i];
+            if (v >= 1 && ls[v - 1]) {
+                buf[s[v - 1] + 1] -= 1;
+                sa[buf[s[v - 1] + 1]] = v - 1;
+            }
+        }
+    }
+
+    /**
+     * A suffix of the text presented without copying it.
+     */
+    private class Suffix implements CharSequence {
+        private final int offset;
+
+        Suffix(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return text.charAt(offset + index);
+        }
+
+        @Override
+        public int length() {
+            return text.length() - offset;
+        }
+
+        @Override
+        public CharSequence subSequence(int begin, int end) {
+            return text.subSequence(offset + begin, offset + end);
+        }
+
+        @Override
+        public String toString() {
+            return text.subSequence(offset, text.length()).toString();
+        }
+    }
+}
@@ -1,40 +1,98 @@
 package autocomplete;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
 
 /**
- * Ternary search tree (TST) implementation of the {@link Autocomplete} interface.
+ * Ternary search tree (TST) implementation of the {@link Autocomplete} interface. Each node also stores the maximum
+ * weight of any term in its subtree, so {@link #topMatches(CharSequence, int)} can search best-first and visit only
+ * the parts of the tree that could contain the heaviest matches rather than every match of the prefix.
+ * {@link #fuzzyTopMatches(CharSequence, int, int)} extends the same search to typo-tolerant prefixes.
+ * <p>
+ * Nodes are stored in parallel primitive arrays indexed by node number rather than as one object per character, and
+ * all traversals are iterative, so long terms cannot overflow the call stack. Each call to {@code addAll} sorts its
+ * terms and inserts medians first, which keeps the tree balanced even when the terms arrive in sorted order.
  *
  * @see Autocomplete
  */
 public class TernarySearchTreeAutocomplete implements Autocomplete {
+    /**
+     * Node number representing the absence of a node. Node 0 is never used so that new child links default to it.
+     */
+    private static final int NIL = 0;
+    /**
+     * Initial capacity of the node arrays.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+    /**
+     * The character of each node.
+     */
+    private char[] data;
+    /**
+     * The left, middle and right child of each node, or {@link #NIL}.
+     */
+    private int[] left;
+    private int[] mid;
+    private int[] right;
+    /**
+     * The nodes that end an autocompletion term.
+     */
+    private final BitSet isTerm;
+    /**
+     * The weight of the term ending at each node.
+     */
+    private double[] weight;
+    /**
+     * An upper bound on the weight of any term in the subtree of each node.
+     */
+    private double[] max;
+    /**
+     * The number of terms in the subtree of each node, including the left and right subtrees.
+     */
+    private int[] count;
+    /**
+     * The number of nodes, including the unused node 0.
+     */
+    private int size;
     /**
      * The overall root of the tree: the first character of the first autocompletion term added to this tree.
      */
-    private Node overallRoot;
+    private int overallRoot;
 
     /**
      * Constructs an empty instance.
      */
     public TernarySearchTreeAutocomplete() {
-        overallRoot = null;
+        data = new char[INITIAL_CAPACITY];
+        left = new int[INITIAL_CAPACITY];
+        mid = new int[INITIAL_CAPACITY];
+        right = new int[INITIAL_CAPACITY];
+        isTerm = new BitSet();
+        weight = new double[INITIAL_CAPACITY];
+        max = new double[INITIAL_CAPACITY];
+        count = new int[INITIAL_CAPACITY];
+        size = 1;
+        overallRoot = NIL;
     }
 
     @Override
     public void addAll(Collection<? extends CharSequence> terms) {
-        // So here I want to add all the values one by one, and with the TST there is a put method, which
-        // contains the logic that can compare the values lexigraphically
-        // TO MAKE A TST, EACH NODE CONTAINS ONE CHAR, AND A LEFT/RIGHT/MIDDLE CHILDREN NODES
-
-        // Need a helper method for insertion
-        // if it's not empty then start adding
+        List<CharSequence> sorted = new ArrayList<>(terms);
+        sorted.sort(CharSequence::compare);
+        for (int i : medianOrder(sorted.size())) {
+            put(sorted.get(i), 0.0, false);
+        }
+    }
 
-        for (CharSequence word : terms) {
-            overallRoot = putTerms(overallRoot, word, 0);
+    @Override
+    public void addAll(Map<? extends CharSequence, ? extends Number> terms) {
+        List<Map.Entry<? extends CharSequence, ? extends Number>> sorted = new ArrayList<>(terms.entrySet());
+        sorted.sort((a, b) -> CharSequence.compare(a.getKey(), b.getKey()));
+        for (int i : medianOrder(sorted.size())) {
+            Map.Entry<? extends CharSequence, ? extends Number> entry = sorted.get(i);
+            put(entry.getKey(), entry.getValue().doubleValue(), true);
         }
     }
+
     @Override
     public List<CharSequence> allMatches(CharSequence prefix) {
         List<CharSequence> result = new ArrayList<>();
@@ -43,107 +101,394 @@ public class TernarySearchTreeAutocomplete implements Autocomplete {
         if (prefix == null || prefix.isEmpty())  {
             return result;
         }
-        // So we have a prefix, and we want to use the helper method to traverse to the point
+        // So we have a prefix, and we want to traverse to the point
         // that all of the characters in prefix are matched with a words prefix
-        Node start = getTerms(overallRoot, prefix,0);
+        int start = get(prefix);
 
-        if (start == null) {
+        if (start == NIL) {
             return result;
         }
         // If the starting node is a word containing the prefix, then add it to the results
-        if (start.isTerm) {
-            result.add(prefix);
+        if (isTerm.get(start)) {
+            result.add(prefix.toString());
         }
-        collectTerms(start.mid, prefix.toString(), result);
+        collectTerms(mid[start], prefix, result);
 
         return result;
     }
 
-    private void collectTerms (Node x, String term, List<CharSequence> result) {
-        if (x == null) {
-            return;
+    @Override
+    public int countMatches(CharSequence prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return 0;
+        }
+        int start = get(prefix);
+        if (start == NIL) {
+            return 0;
         }
-        collectTerms(x.left, term, result);
+        return (isTerm.get(start) ? 1 : 0) + count[mid[start]];
+    }
 
-        // If the isTerm flag is true, then it is a word and add it to the results list
-        if (x.isTerm) {
-            //result.add(term += x.data);
-            result.add(term + x.data);
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        return terms(weightedTopMatches(prefix, k));
+    }
+
+    @Override
+    public List<WeightedTerm> weightedTopMatches(CharSequence prefix, int k) {
+        if (prefix == null || prefix.isEmpty() || k <= 0) {
+            return new ArrayList<>();
+        }
+        int start = get(prefix);
+        if (start == NIL) {
+            return new ArrayList<>();
+        }
+        PriorityQueue<Candidate> perimeter = new PriorityQueue<>();
+        if (isTerm.get(start)) {
+            perimeter.add(new Candidate(prefix.toString(), NIL, weight[start]));
+        }
+        if (mid[start] != NIL) {
+            perimeter.add(new Candidate(prefix.toString(), mid[start], max[mid[start]]));
         }
+        return bestFirst(perimeter, k);
+    }
 
-        // Call the collect terms with the middle node and the prefix now includes the last char
-        //collectTerms(x.mid, term += x.data, result);
-        collectTerms(x.mid, term + x.data, result) ;
-        collectTerms(x.right, term, result);
+    /**
+     * Returns up to the given number of terms within the given edit distance of a prefix of the query in descending
+     * order of weight. The tree is intersected with a Levenshtein automaton for the query, simulated one row of the
+     * edit distance table per character: a branch is pruned as soon as every entry in its row exceeds the maximum
+     * distance, and once the last entry is within the distance, every term below the node matches without further
+     * comparisons. Only the branches within the distance of some prefix of the query are visited, so the whole
+     * dictionary is never scanned.
+     *
+     * @param prefix   search query.
+     * @param maxEdits the maximum number of inserted, deleted or substituted characters.
+     * @param k        the maximum number of terms to return.
+     * @return a list of up to k approximately matching terms in descending order of weight.
+     */
+    public List<CharSequence> fuzzyTopMatches(CharSequence prefix, int maxEdits, int k) {
+        if (prefix == null || prefix.isEmpty() || k <= 0 || overallRoot == NIL) {
+            return new ArrayList<>();
+        }
+        int m = prefix.length();
+        PriorityQueue<Candidate> perimeter = new PriorityQueue<>();
+        // Row i of the automaton state is the edit distance between the first i characters of the query and the
+        // characters on the path to the node.
+        int[] initial = new int[m + 1];
+        for (int i = 0; i <= m; i += 1) {
+            initial[i] = i;
+        }
+        if (initial[m] <= maxEdits) {
+            perimeter.add(new Candidate("", overallRoot, max[overallRoot]));
+            return terms(bestFirst(perimeter, k));
+        }
+        Deque<Candidate> stack = new ArrayDeque<>();
+        Deque<int[]> rows = new ArrayDeque<>();
+        stack.push(new Candidate("", overallRoot, 0.0));
+        rows.push(initial);
+        while (!stack.isEmpty()) {
+            Candidate candidate = stack.pop();
+            int[] row = rows.pop();
+            int x = candidate.node;
+            // Siblings in the tree share the path before this node, so they continue from the same row.
+            if (left[x] != NIL) {
+                stack.push(new Candidate(candidate.term, left[x], 0.0));
+                rows.push(row);
+            }
+            if (right[x] != NIL) {
+                stack.push(new Candidate(candidate.term, right[x], 0.0));
+                rows.push(row);
+            }
+            char c = data[x];
+            int[] next = new int[m + 1];
+            next[0] = row[0] + 1;
+            int min = next[0];
+            for (int i = 1; i <= m; i += 1) {
+                int substitute = row[i - 1] + (prefix.charAt(i - 1) == c ? 0 : 1);
+                next[i] = Math.min(substitute, Math.min(row[i], next[i - 1]) + 1);
+                min = Math.min(min, next[i]);
+            }
+            String term = candidate.term + c;
+            if (next[m] <= maxEdits) {
+                if (isTerm.get(x)) {
+                    perimeter.add(new Candidate(term, NIL, weight[x]));
+                }
+                if (mid[x] != NIL) {
+                    perimeter.add(new Candidate(term, mid[x], max[mid[x]]));
+                }
+            } else if (min <= maxEdits && mid[x] != NIL) {
+                stack.push(new Candidate(term, mid[x], 0.0));
+                rows.push(next);
+            }
+        }
+        return terms(bestFirst(perimeter, k));
+    }
 
+    /**
+     * Removes terms from the perimeter of a best-first search in descending order of weight.
+     *
+     * @param perimeter the terms and subtrees that match, each subtree ordered by its maximum weight.
+     * @param k         the maximum number of terms to return.
+     * @return a list of up to k terms and their weights in descending order of weight.
+     */
+    private List<WeightedTerm> bestFirst(PriorityQueue<Candidate> perimeter, int k) {
+        // Best-first search: a subtree is only expanded once its maximum weight is at least as heavy as every term
+        // and subtree still waiting, so terms come out of the queue in descending order of weight.
+        List<WeightedTerm> result = new ArrayList<>();
+        while (!perimeter.isEmpty() && result.size() < k) {
+            Candidate candidate = perimeter.remove();
+            int x = candidate.node;
+            if (x == NIL) {
+                result.add(new WeightedTerm(candidate.term, candidate.weight));
+                continue;
+            }
+            String term = candidate.term + data[x];
+            if (isTerm.get(x)) {
+                perimeter.add(new Candidate(term, NIL, weight[x]));
+            }
+            if (left[x] != NIL) {
+                perimeter.add(new Candidate(candidate.term, left[x], max[left[x]]));
+            }
+            if (mid[x] != NIL) {
+                perimeter.add(new Candidate(term, mid[x], max[mid[x]]));
+            }
+            if (right[x] != NIL) {
+                perimeter.add(new Candidate(candidate.term, right[x], max[right[x]]));
+            }
+        }
+        return result;
     }
 
-    private Node getTerms(Node x, CharSequence term, int d) {
-        char letter = term.charAt(d);
-        if (x == null) {
-            return null;
+    /**
+     * Returns the terms of the given weighted terms in the same order.
+     *
+     * @param weighted the weighted terms.
+     * @return a list of the terms.
+     */
+    private static List<CharSequence> terms(List<WeightedTerm> weighted) {
+        List<CharSequence> result = new ArrayList<>(weighted.size());
+        for (WeightedTerm term : weighted) {
+            result.add(term.term());
         }
-        if (letter < x.data) {
-            return getTerms(x.left, term, d);
-        } else if (letter > x.data) {
-            return getTerms(x.right, term, d);
-        } else if (d < term.length() - 1) {
-            return getTerms(x.mid, term, d + 1);
-        } else {
-            return x;
+        return result;
+    }
+
+    /**
+     * Returns the order in which to insert the indices of a sorted list so that the median of every range is inserted
+     * before the rest of the range, as in building a balanced binary search tree.
+     *
+     * @param n the size of the sorted list.
+     * @return the indices 0 to n - 1 in median-first order.
+     */
+    private static int[] medianOrder(int n) {
+        int[] order = new int[n];
+        int count = 0;
+        // Explicit stack of half-open ranges [lo, hi) still to insert.
+        int[] stack = new int[64];
+        int top = 0;
+        if (n > 0) {
+            stack[top++] = 0;
+            stack[top++] = n;
         }
+        while (top > 0) {
+            int hi = stack[--top];
+            int lo = stack[--top];
+            int median = (lo + hi) >>> 1;
+            order[count++] = median;
+            if (top + 4 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            if (median + 1 < hi) {
+                stack[top++] = median + 1;
+                stack[top++] = hi;
+            }
+            if (lo < median) {
+                stack[top++] = lo;
+                stack[top++] = median;
+            }
+        }
+        return order;
     }
 
-    // This helper method is for adding char's to the TST
-    private Node putTerms(Node x, CharSequence term, int d) {
-        // Initialize variables for the char at a given index
-        char letter = term.charAt(d);
+    // Collects every term in the subtree of x in sorted order, using an explicit stack instead of recursion.
+    // Each node is pushed twice: first to visit its left subtree, then to visit itself and its mid/right subtrees.
+    private void collectTerms(int x, CharSequence prefix, List<CharSequence> result) {
+        if (x == NIL) {
+            return;
+        }
+        int base = prefix.length();
+        StringBuilder term = new StringBuilder(prefix);
+        int[] nodes = new int[32];
+        int[] depths = new int[32];
+        int top = 0;
+        nodes[top] = x << 1;
+        depths[top++] = base;
+        while (top > 0) {
+            top -= 1;
+            int node = nodes[top] >>> 1;
+            boolean visited = (nodes[top] & 1) == 1;
+            int depth = depths[top];
+            if (top + 2 > nodes.length) {
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                depths = Arrays.copyOf(depths, depths.length * 2);
+            }
+            if (!visited) {
+                nodes[top] = node << 1 | 1;
+                depths[top++] = depth;
+                if (left[node] != NIL) {
+                    nodes[top] = left[node] << 1;
+                    depths[top++] = depth;
+                }
+                continue;
+            }
+            term.setLength(depth);
+            term.append(data[node]);
+            // If the term bit is set, then it is a word and add it to the results list
+            if (isTerm.get(node)) {
+                result.add(term.toString());
+            }
+            // The right subtree is pushed first so the mid subtree is visited while term still ends in this char
+            if (right[node] != NIL) {
+                nodes[top] = right[node] << 1;
+                depths[top++] = depth;
+            }
+            if (mid[node] != NIL) {
+                nodes[top] = mid[node] << 1;
+                depths[top++] = depth + 1;
+            }
+        }
+    }
 
+    // Returns the node for the last character of the term, or NIL if the tree does not contain the term as a prefix.
+    private int get(CharSequence term) {
+        int x = overallRoot;
+        int d = 0;
+        while (x != NIL) {
+            char letter = term.charAt(d);
+            if (letter < data[x]) {
+                x = left[x];
+            } else if (letter > data[x]) {
+                x = right[x];
+            } else if (d < term.length() - 1) {
+                x = mid[x];
+                d += 1;
+            } else {
+                return x;
+            }
+        }
+        return NIL;
+    }
+
+    // This helper method is for adding a term to the TST
+    // If weighted is false, a new term gets weight 0 and an existing term keeps its weight.
+    private void put(CharSequence term, double termWeight, boolean weighted) {
         // Base Case for when the terms are empty
         if (term.isEmpty()) {
-            throw new IllegalArgumentException("Calling putTerms with no terms to add");
-        }
-        if (x == null) {
-            x = new Node(letter);
-        }
-
-        // Logic to compare the TST node char to the letter being added
-        // This allows for proper insertion into TST
-        // Root node children get compared to the term that we want to add
-        // If the value we want to insert is greater than the left node, check right
-        // if the value is less than the left node, check the left node
-        if (letter > x.data) {
-            x.right = putTerms(x.right, term, d);
-        } else if (letter < x.data) {
-            x.left = putTerms(x.left, term, d);
-        // If letter is not > / < than the left/right node values, then check if
-        // still within the bounds of the string, then return the next node level to
-        // keep searching for a match
-        } else if (d < term.toString().length() - 1) {
-            x.mid = putTerms(x.mid, term, d+1);
-        }
-        // When at the end of a word, change the isTerm boolean
-        else {
-            x.isTerm = true;
+            throw new IllegalArgumentException("Calling put with no terms to add");
+        }
+        if (overallRoot == NIL) {
+            overallRoot = newNode(term.charAt(0));
+        }
+        // Walk down the tree creating nodes as needed, then walk it again to raise the subtree maximums
+        int x = overallRoot;
+        int d = 0;
+        while (true) {
+            char letter = term.charAt(d);
+            if (letter > data[x]) {
+                if (right[x] == NIL) {
+                    int child = newNode(letter);
+                    right[x] = child;
+                }
+                x = right[x];
+            } else if (letter < data[x]) {
+                if (left[x] == NIL) {
+                    int child = newNode(letter);
+                    left[x] = child;
+                }
+                x = left[x];
+            } else if (d < term.length() - 1) {
+                d += 1;
+                if (mid[x] == NIL) {
+                    int child = newNode(term.charAt(d));
+                    mid[x] = child;
+                }
+                x = mid[x];
+            } else {
+                break;
+            }
+        }
+        // When at the end of a word, set the term bit
+        boolean added = !isTerm.get(x);
+        if (weighted || added) {
+            weight[x] = weighted ? termWeight : 0.0;
+        }
+        isTerm.set(x);
+        // The maximum is only an upper bound: lowering the weight of an existing term leaves it unchanged.
+        double raised = weight[x];
+        int increment = added ? 1 : 0;
+        x = overallRoot;
+        d = 0;
+        while (x != NIL) {
+            max[x] = Math.max(max[x], raised);
+            count[x] += increment;
+            char letter = term.charAt(d);
+            if (letter > data[x]) {
+                x = right[x];
+            } else if (letter < data[x]) {
+                x = left[x];
+            } else if (d < term.length() - 1) {
+                x = mid[x];
+                d += 1;
+            } else {
+                break;
+            }
+        }
+    }
+
+    // Appends a node with no children and no terms in its subtree, growing the arrays if necessary
+    private int newNode(char letter) {
+        if (size == data.length) {
+            int capacity = data.length * 2;
+            data = Arrays.copyOf(data, capacity);
+            left = Arrays.copyOf(left, capacity);
+            mid = Arrays.copyOf(mid, capacity);
+            right = Arrays.copyOf(right, capacity);
+            weight = Arrays.copyOf(weight, capacity);
+            max = Arrays.copyOf(max, capacity);
+            count = Arrays.copyOf(count, capacity);
         }
+        int x = size;
+        size += 1;
+        data[x] = letter;
+        max[x] = Double.NEGATIVE_INFINITY;
         return x;
     }
-    /*
-     * A search tree node representing a single character in an autocompletion term.
-     */
-    private static class Node {
-        private final char data;
-        private boolean isTerm;
-        private Node left;
-        private Node mid;
-        private Node right;
-
-        public Node(char data) {
-            this.data = data;
-            this.isTerm = false;
-            this.left = null;
-            this.mid = null;
-            this.right = null;
+
+    /**
+     * A term or a subtree waiting in the best-first search, ordered by descending weight.
+     */
+    private static class Candidate implements Comparable<Candidate> {
+        /**
+         * The complete term if node is {@link #NIL}, otherwise the characters before the subtree.
+         */
+        private final String term;
+        private final int node;
+        private final double weight;
+
+        Candidate(String term, int node, double weight) {
+            this.term = term;
+            this.node = node;
+            this.weight = weight;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            int result = Double.compare(other.weight, this.weight);
+            if (result == 0) {
+                // Break ties in favor of complete terms so they are returned as soon as possible.
+                result = Boolean.compare(this.node != NIL, other.node != NIL);
+            }
+            return result;
         }
     }
 }
@@ -0,0 +1,243 @@
+package autocomplete;
+
+import java.util.*;
+
+/**
+ * Token-level implementation of the {@link Autocomplete} interface that matches terms containing a word starting with
+ * each word of the query, rather than only terms starting with the query. Searching "pizza" finds "The Northlake
+ * Tavern &amp; Pizza House", and "tavern pi" narrows it down further. Words are compared by their
+ * {@link NormalizedAutocomplete#fold(CharSequence) folded} form, so matching ignores case, accents and punctuation.
+ * <p>
+ * The index is inverted: every prefix of every word maps to a posting list of the ids of the terms containing a word
+ * with that prefix, stored as a sorted {@code int[]}. Ids are assigned in descending order of weight, so intersecting
+ * the posting lists of the query words produces matches already ranked, and {@link #topMatches} stops after k. The
+ * intersection walks the shortest list and gallops through the others, so it costs little more than the rarest word.
+ *
+ * @see NormalizedAutocomplete
+ * @see Autocomplete
+ */
+public class TokenAutocomplete implements Autocomplete {
+    /**
+     * Each added term mapped to its weight.
+     */
+    private final Map<String, Double> weights;
+    /**
+     * The terms in descending order of weight, indexed by id.
+     */
+    private String[] terms;
+    /**
+     * Each word prefix mapped to the sorted ids of the terms containing a word with that prefix.
+     */
+    private Map<String, int[]> postings;
+
+    /**
+     * Constructs an empty instance.
+     */
+    public TokenAutocomplete() {
+        weights = new HashMap<>();
+        terms = new String[0];
+        postings = Map.of();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Terms that are not already present are added with weight 0. Rebuilds the index, since adding a term changes the
+     * ids of all lighter terms.
+     */
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        for (CharSequence term : terms) {
+            weights.putIfAbsent(term.toString(), 0.0);
+        }
+        build();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Rebuilds the index, since adding a term changes the ids of all lighter terms.
+     */
+    @Override
+    public void addAll(Map<? extends CharSequence, ? extends Number> terms) {
+        for (Map.Entry<? extends CharSequence, ? extends Number> entry : terms.entrySet()) {
+            weights.put(entry.getKey().toString(), entry.getValue().doubleValue());
+        }
+        build();
+    }
+
+    /**
+     * Assigns ids in descending order of weight and builds the posting list of every word prefix.
+     */
+    private void build() {
+        terms = weights.keySet().toArray(new String[0]);
+        Arrays.sort(terms, Comparator.comparingDouble((String term) -> -weights.get(term))
+                .thenComparing(Comparator.naturalOrder()));
+        Map<String, PostingList> lists = new HashMap<>();
+        for (int id = 0; id < terms.length; id += 1) {
+            for (String word : words(terms[id])) {
+                for (int length = 1; length <= word.length(); length += 1) {
+                    lists.computeIfAbsent(word.substring(0, length), prefix -> new PostingList()).add(id);
+                }
+            }
+        }
+        Map<String, int[]> result = new HashMap<>(lists.size() * 4 / 3 + 1);
+        for (Map.Entry<String, PostingList> entry : lists.entrySet()) {
+            result.put(entry.getKey(), Arrays.copyOf(entry.getValue().ids, entry.getValue().size));
+        }
+        postings = result;
+    }
+
+    /**
+     * Returns all terms containing a word starting with each word of the query, in descending order of weight.
+     *
+     * @param prefix search query.
+     */
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        return topMatches(prefix, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        int[][] lists = lists(prefix);
+        return lists == null ? 0 : intersect(lists, Integer.MAX_VALUE).length;
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        List<CharSequence> result = new ArrayList<>();
+        int[][] lists = lists(prefix);
+        if (lists == null || k <= 0) {
+            return result;
+        }
+        for (int id : intersect(lists, k)) {
+            result.add(terms[id]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the posting lists of the words of the given query from shortest to longest, or null if the query has no
+     * words or no term matches one of them.
+     */
+    private int[][] lists(CharSequence query) {
+        if (query == null) {
+            return null;
+        }
+        String[] words = words(query);
+        if (words.length == 0) {
+            return null;
+        }
+        int[][] result = new int[words.length][];
+        for (int i = 0; i < words.length; i += 1) {
+            result[i] = postings.get(words[i]);
+            if (result[i] == null) {
+                return null;
+            }
+        }
+        Arrays.sort(result, Comparator.comparingInt(list -> list.length));
+        return result;
+    }
+
+    /**
+     * Returns up to k ids in all the given sorted lists in ascending order.
+     *
+     * @param lists the sorted lists, shortest first.
+     * @param k     the maximum number of ids to return.
+     * @return the ids in every list.
+     */
+    static int[] intersect(int[][] lists, int k) {
+        int[] result = new int[Math.min(k, lists[0].length)];
+        int size = 0;
+        int[] cursors = new int[lists.length];
+        candidates:
+        for (int i = 0; i < lists[0].length && size < result.length; i += 1) {
+            int id = lists[0][i];
+            for (int j = 1; j < lists.length; j += 1) {
+                cursors[j] = gallop(lists[j], cursors[j], id);
+                if (cursors[j] == lists[j].length) {
+                    break candidates;
+                } else if (lists[j][cursors[j]] != id) {
+                    continue candidates;
+                }
+            }
+            result[size] = id;
+            size += 1;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Returns the index of the first element of the sorted list at or after the given start that is at least the
+     * given target, by doubling the step from the start and then binary searching the last step.
+     */
+    private static int gallop(int[] list, int start, int target) {
+        int step = 1;
+        int hi = start;
+        while (hi < list.length && list[hi] < target) {
+            start = hi + 1;
+            hi += step;
+            step *= 2;
+        }
+        hi = Math.min(hi, list.length);
+        int index = Arrays.binarySearch(list, start, hi, target);
+        return index < 0 ? -(index + 1) : index;
+    }
+
+    /**
+     * Returns whether a term matches a query given their {@link NormalizedAutocomplete#fold(CharSequence) folded}
+     * forms, that is, whether every word of the query starts some word of the term. A term that matches a query also
+     * matches every prefix of the query, so this can refine cached matches in a {@link CachingAutocomplete}.
+     *
+     * @param query the folded query.
+     * @param term  the folded term.
+     * @return true if and only if the term matches the query.
+     */
+    public static boolean matches(String query, String term) {
+        if (query.isEmpty()) {
+            return false;
+        }
+        String[] words = term.isEmpty() ? new String[0] : term.split(" ");
+        candidates:
+        for (String prefix : query.split(" ")) {
+            for (String word : words) {
+                if (word.startsWith(prefix)) {
+                    continue candidates;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the words of the folded form of the given text.
+     */
+    private static String[] words(CharSequence text) {
+        String folded = NormalizedAutocomplete.fold(text);
+        return folded.isEmpty() ? new String[0] : folded.split(" ");
+    }
+
+    /**
+     * A growable list of ascending ids without duplicates.
+     */
+    private static class PostingList {
+        private int[] ids = new int[4];
+        private int size = 0;
+
+        /**
+         * Adds the given id unless it is already last, which happens when a term has several words with the prefix.
+         */
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size] = id;
+            size += 1;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package autocomplete;
 
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * {@link TreeSet} implementation of the {@link Autocomplete} interface.
@@ -44,4 +45,12 @@ public class TreeSetAutocomplete implements Autocomplete {
         }
         return result;
     }
+
+    @Override
+    public Stream<CharSequence> stream(CharSequence prefix) {
+        if (prefix == null || prefix.length() == 0) {
+            return Stream.empty();
+        }
+        return elements.tailSet(prefix, true).stream().takeWhile(term -> Autocomplete.isPrefixOf(prefix, term));
+    }
 }
@@ -0,0 +1,232 @@
+package dna;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * An index of the positions of every k-mer (substring of length k) in a DNA text, answering approximate searches by
+ * seed-and-extend. Each k-mer of the bases A, C, G and T is packed two bits per base into a {@code long}, and the
+ * index stores the distinct k-mers in sorted order with the positions of each k-mer in a single {@code int[]}, so
+ * looking up a k-mer is a binary search and the index costs about one int per base.
+ * <p>
+ * A pattern with at most m mismatches against the text must match exactly in at least one of any m + 1 disjoint
+ * segments of the pattern (the pigeonhole principle). {@link #search(CharSequence, int)} looks up the first k-mer of
+ * each segment as a seed, extends each seed hit to a candidate alignment of the whole pattern, and verifies it by
+ * counting mismatches.
+ *
+ * @see PackedDnaSequence
+ */
+public class KmerIndex {
+    /**
+     * The longest supported k-mer, which packs into 32 bits so that a k-mer and a position share one {@code long}.
+     */
+    public static final int MAX_K = 16;
+    /**
+     * The bases in the order of their two-bit codes.
+     */
+    private static final String BASES = "ACGT";
+    /**
+     * Number of text positions encoded by each parallel task while building the index.
+     */
+    private static final int CHUNK_SIZE = 1 << 16;
+    /**
+     * Number of low bits holding the position in a packed k-mer and position.
+     */
+    private static final int POSITION_BITS = 31;
+    /**
+     * Placeholder for positions whose k-mer contains a character other than a base, which sorts after every entry.
+     */
+    private static final long SKIPPED = Long.MAX_VALUE;
+    /**
+     * The indexed text.
+     */
+    private final CharSequence text;
+    /**
+     * The length of each k-mer.
+     */
+    private final int k;
+    /**
+     * The distinct k-mers of the text in sorted order of their packed codes.
+     */
+    private final long[] kmers;
+    /**
+     * For each distinct k-mer, the index of its first position in {@link #positions}, followed by the total number of
+     * positions.
+     */
+    private final int[] offsets;
+    /**
+     * The start positions of each k-mer in sorted order, grouped by k-mer.
+     */
+    private final int[] positions;
+
+    /**
+     * Constructs an index of every k-mer of the given text, encoding the text in parallel. k-mers containing
+     * characters other than A, C, G and T are not indexed.
+     *
+     * @param text the text to index, which must not change afterward.
+     * @param k    the length of each k-mer.
+     * @throws IllegalArgumentException if k is not between 1 and {@link #MAX_K}.
+     */
+    public KmerIndex(CharSequence text, int k) {
+        if (k < 1 || k > MAX_K) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_K + ": " + k);
+        }
+        this.text = text;
+        this.k = k;
+        int count = Math.max(text.length() - k + 1, 0);
+        // Pack each k-mer with its position so that sorting groups positions by k-mer in sorted order.
+        long[] entries = new long[count];
+        IntStream.range(0, (count + CHUNK_SIZE - 1) / CHUNK_SIZE).parallel().forEach(chunk -> {
+            int lo = chunk * CHUNK_SIZE;
+            int hi = Math.min(count, lo + CHUNK_SIZE);
+            long mask = (1L << (2 * k)) - 1;
+            long kmer = 0;
+            int valid = 0;
+            for (int i = lo; i < hi + k - 1; i += 1) {
+                int code = BASES.indexOf(text.charAt(i));
+                if (code < 0) {
+                    valid = 0;
+                } else {
+                    kmer = (kmer << 2 | code) & mask;
+                    valid += 1;
+                }
+                int start = i - k + 1;
+                if (start >= lo) {
+                    entries[start] = valid >= k ? kmer << POSITION_BITS | start : SKIPPED;
+                }
+            }
+        });
+        Arrays.parallelSort(entries);
+
+        int size = 0;
+        int distinct = 0;
+        while (size < count && entries[size] != SKIPPED) {
+            if (size == 0 || entries[size] >>> POSITION_BITS != entries[size - 1] >>> POSITION_BITS) {
+                distinct += 1;
+            }
+            size += 1;
+        }
+        kmers = new long[distinct];
+        offsets = new int[distinct + 1];
+        positions = new int[size];
+        for (int i = 0, j = -1; i < size; i += 1) {
+            long kmer = entries[i] >>> POSITION_BITS;
+            if (j < 0 || kmers[j] != kmer) {
+                j += 1;
+                kmers[j] = kmer;
+                offsets[j] = i;
+            }
+            positions[i] = (int) (entries[i] & ((1L << POSITION_BITS) - 1));
+        }
+        offsets[distinct] = size;
+    }
+
+    /**
+     * Returns the length of each k-mer.
+     *
+     * @return the length of each k-mer.
+     */
+    public int k() {
+        return k;
+    }
+
+    /**
+     * Returns the positions in the text at which the given k-mer occurs, in sorted order.
+     *
+     * @param kmer the k-mer to look up.
+     * @return the start positions of the occurrences of the k-mer.
+     * @throws IllegalArgumentException if the k-mer does not have length k.
+     */
+    public int[] positions(CharSequence kmer) {
+        if (kmer.length() != k) {
+            throw new IllegalArgumentException("Expected a k-mer of length " + k + ": " + kmer);
+        }
+        int index = indexOf(encode(kmer, 0));
+        return index < 0 ? new int[0] : Arrays.copyOfRange(positions, offsets[index], offsets[index + 1]);
+    }
+
+    /**
+     * Returns the positions in the text at which the given pattern occurs with at most the given number of
+     * mismatched characters, in sorted order. The pattern must be long enough to split into one more segment than the
+     * number of mismatches with at least k characters each.
+     *
+     * @param pattern    the pattern to search for.
+     * @param mismatches the maximum number of mismatched characters.
+     * @return the start positions of the approximate occurrences of the pattern.
+     * @throws IllegalArgumentException if mismatches is negative or the pattern is too short to seed.
+     */
+    public int[] search(CharSequence pattern, int mismatches) {
+        if (mismatches < 0) {
+            throw new IllegalArgumentException("Negative number of mismatches: " + mismatches);
+        }
+        int segment = pattern.length() / (mismatches + 1);
+        if (segment < k) {
+            throw new IllegalArgumentException("Pattern of length " + pattern.length() + " is too short for "
+                    + (mismatches + 1) + " seeds of length " + k);
+        }
+        int last = text.length() - pattern.length();
+        int[] result = new int[16];
+        int size = 0;
+        for (int seed = 0; seed <= mismatches; seed += 1) {
+            int offset = seed * segment;
+            // A seed containing a character other than a base cannot match exactly, so another seed must.
+            long kmer = encode(pattern, offset);
+            int index = kmer < 0 ? -1 : indexOf(kmer);
+            if (index < 0) {
+                continue;
+            }
+            for (int i = offsets[index]; i < offsets[index + 1]; i += 1) {
+                int start = positions[i] - offset;
+                if (start >= 0 && start <= last && matches(pattern, start, mismatches)) {
+                    if (size == result.length) {
+                        result = Arrays.copyOf(result, size * 2);
+                    }
+                    result[size] = start;
+                    size += 1;
+                }
+            }
+        }
+        // An occurrence that matches several seeds exactly is found once per seed.
+        return Arrays.stream(result, 0, size).sorted().distinct().toArray();
+    }
+
+    /**
+     * Returns whether the pattern matches the text at the given start with at most the given number of mismatches.
+     */
+    private boolean matches(CharSequence pattern, int start, int mismatches) {
+        for (int i = 0; i < pattern.length(); i += 1) {
+            if (text.charAt(start + i) != pattern.charAt(i)) {
+                mismatches -= 1;
+                if (mismatches < 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index of the given packed k-mer in {@link #kmers}, or a negative number if the text does not
+     * contain it.
+     */
+    private int indexOf(long kmer) {
+        return Arrays.binarySearch(kmers, kmer);
+    }
+
+    /**
+     * Packs the k characters of the given sequence starting at the given offset two bits per base.
+     *
+     * @return the packed k-mer, or -1 if it contains a character other than a base.
+     */
+    private long encode(CharSequence sequence, int offset) {
+        long kmer = 0;
+        for (int i = offset; i < offset + k; i += 1) {
+            int code = BASES.indexOf(sequence.charAt(i));
+            if (code < 0) {
+                return -1;
+            }
+            kmer = kmer << 2 | code;
+        }
+        return kmer;
+    }
+}
@@ -0,0 +1,172 @@
+package dna;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A DNA sequence backed by a memory-mapped file of nucleotides packed two bits per base, so a genome occupies a
+ * quarter of a byte per base in the operating system page cache and nothing on the Java heap. Reading a character
+ * only reads the mapped byte containing it, and {@link #subSequence(int, int)} returns a view without copying.
+ * <p>
+ * The file starts with the magic number {@code DNA2} and the number of bases as a big-endian int, followed by the
+ * bases packed four per byte with the first base in the lowest two bits. Use {@link #convert(Path, Path)} or the
+ * {@code main} method to build a file from FASTA or plain text.
+ */
+public class PackedDnaSequence implements CharSequence {
+    /**
+     * The magic number identifying a packed DNA file.
+     */
+    private static final int MAGIC = 0x444E4132;
+    /**
+     * Size in bytes of the file header.
+     */
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    /**
+     * The bases in the order of their two-bit codes.
+     */
+    private static final String BASES = "ACGT";
+    /**
+     * The mapped file.
+     */
+    private final ByteBuffer buffer;
+    /**
+     * The index of the first base of this sequence in the file.
+     */
+    private final int offset;
+    /**
+     * The number of bases in this sequence.
+     */
+    private final int length;
+
+    private PackedDnaSequence(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Converts a FASTA or plain text file into a packed DNA file.
+     *
+     * @param args the input path and the output path.
+     * @throws IOException if the input cannot be read or the output cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: PackedDnaSequence <input.fasta|input.txt> <output.2bit>");
+            System.exit(1);
+        }
+        long replaced = convert(Path.of(args[0]), Path.of(args[1]));
+        System.out.println("Wrote " + open(Path.of(args[1])).length() + " bases to " + args[1]
+                + (replaced > 0 ? " (" + replaced + " ambiguous bases stored as A)" : ""));
+    }
+
+    /**
+     * Memory-maps the given packed DNA file.
+     *
+     * @param file the path of a file written by {@link #convert(Path, Path)}.
+     * @return the sequence stored in the file.
+     * @throws IOException if the file cannot be read or is not a packed DNA file.
+     */
+    public static PackedDnaSequence open(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a packed DNA file: " + file);
+        }
+        return new PackedDnaSequence(buffer, 0, buffer.getInt(Integer.BYTES));
+    }
+
+    /**
+     * Packs the bases in a FASTA or plain text file into a packed DNA file. Lines starting with {@code >} or
+     * {@code ;} are headers or comments and are skipped, as is whitespace; bases may be in either case. Two bits
+     * cannot represent ambiguous bases such as {@code N}, so they are stored as {@code A} and counted.
+     *
+     * @param input  the path of the FASTA or plain text file.
+     * @param output the path of the packed DNA file.
+     * @return the number of ambiguous bases stored as A.
+     * @throws IOException if the input cannot be read, the output cannot be written, or the input has more than
+     *                     {@link Integer#MAX_VALUE} bases.
+     */
+    public static long convert(Path input, Path output) throws IOException {
+        long length = 0;
+        long replaced = 0;
+        try (BufferedReader reader = Files.newBufferedReader(input);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output)))) {
+            out.writeInt(MAGIC);
+            // The length is unknown until the end, so it is patched into the header afterward.
+            out.writeInt(0);
+            int packed = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(">") || line.startsWith(";")) {
+                    continue;
+                }
+                for (int i = 0; i < line.length(); i += 1) {
+                    char c = line.charAt(i);
+                    if (Character.isWhitespace(c)) {
+                        continue;
+                    }
+                    int code = BASES.indexOf(Character.toUpperCase(c));
+                    if (code < 0) {
+                        code = 0;
+                        replaced += 1;
+                    }
+                    packed |= code << (2 * (int) (length % 4));
+                    length += 1;
+                    if (length % 4 == 0) {
+                        out.writeByte(packed);
+                        packed = 0;
+                    }
+                }
+            }
+            if (length % 4 != 0) {
+                out.writeByte(packed);
+            }
+        }
+        if (length > Integer.MAX_VALUE) {
+            Files.delete(output);
+            throw new IOException("Too many bases for a CharSequence: " + length);
+        }
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, (int) length), Integer.BYTES);
+        }
+        return replaced;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        int base = offset + index;
+        return BASES.charAt(buffer.get(HEADER_BYTES + (base >>> 2)) >>> (2 * (base & 3)) & 3);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public CharSequence subSequence(int begin, int end) {
+        if (begin < 0 || begin > end || end > length) {
+            throw new IndexOutOfBoundsException("begin " + begin + ", end " + end + ", length " + length);
+        }
+        return new PackedDnaSequence(buffer, offset + begin, end - begin);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder(length);
+        for (int i = 0; i < length; i += 1) {
+            result.append(charAt(i));
+        }
+        return result.toString();
+    }
+}
@@ -4,6 +4,7 @@ import graphs.AStarGraph;
 import graphs.Edge;
 import minpq.DoubleMapMinPQ;
 import minpq.MinPQ;
+import profiling.RouteQueryEvent;
 
 import java.util.*;
 
@@ -12,6 +13,7 @@ import java.util.*;
  *
  * @param <V> the type of vertices.
  * @see AStarGraph
+ * @see RouteQueryEvent
  */
 public class AStarSolver<V> {
     private final Map<V, Edge<V>> edgeTo;
@@ -26,6 +28,10 @@ public class AStarSolver<V> {
      * @param goal  the goal vertex.
      */
     public AStarSolver(AStarGraph<V> graph, V start, V goal) {
+        RouteQueryEvent event = new RouteQueryEvent();
+        event.begin();
+        int settled = 0;
+        int relaxed = 0;
         edgeTo = new HashMap<>();
         distTo = new HashMap<>();
         this.goal = goal;
@@ -35,6 +41,7 @@ public class AStarSolver<V> {
         distTo.put(start, 0.0);
         while (!perimeter.isEmpty()) {
             V from = perimeter.removeMin();
+            settled += 1;
             for (Edge<V> e : graph.neighbors(from)) {
                 V to = e.to;
                 double oldDist = distTo.getOrDefault(to, Double.POSITIVE_INFINITY);
@@ -44,9 +51,21 @@ public class AStarSolver<V> {
                     distTo.put(to, newDist);
                     double priority = newDist + graph.estimatedDistance(to, goal);
                     perimeter.addOrChangePriority(to, priority);
+                    relaxed += 1;
                 }
             }
         }
+        event.end();
+        // Only pay for building the event fields when a recording is capturing this event.
+        if (event.shouldCommit()) {
+            event.solver = getClass().getSimpleName();
+            event.settledVertices = settled;
+            event.relaxedEdges = relaxed;
+            // The initial add, each removeMin, and each addOrChangePriority.
+            event.pqOperations = 1 + settled + relaxed;
+            event.pathLength = edgeTo.containsKey(goal) ? solution().size() : 0;
+            event.commit();
+        }
     }
 
     /**
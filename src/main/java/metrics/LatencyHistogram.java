@@ -0,0 +1,109 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with logarithmically-sized buckets. Each bucket covers durations up to the next power of two
+ * nanoseconds, so recording a sample is a constant-time {@link LongAdder} increment that never contends with other
+ * threads recording into the same histogram.
+ *
+ * @see MetricsRegistry
+ */
+public class LatencyHistogram {
+    /**
+     * Base-2 exponent of the smallest bucket upper bound: 2<sup>10</sup> nanoseconds, or about 1 microsecond.
+     */
+    private static final int MIN_EXPONENT = 10;
+    /**
+     * Number of finite buckets. The largest finite upper bound is 2<sup>35</sup> nanoseconds, or about 34 seconds.
+     */
+    static final int BUCKETS = 26;
+    /**
+     * Number of samples in each bucket (not cumulative). The last element counts samples above every finite bound.
+     */
+    private final LongAdder[] counts;
+    /**
+     * Sum of all recorded durations in nanoseconds.
+     */
+    private final LongAdder sum;
+
+    /**
+     * Constructs an empty histogram.
+     */
+    public LatencyHistogram() {
+        counts = new LongAdder[BUCKETS + 1];
+        for (int i = 0; i < counts.length; i += 1) {
+            counts[i] = new LongAdder();
+        }
+        sum = new LongAdder();
+    }
+
+    /**
+     * Records a single duration.
+     *
+     * @param nanos the duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        nanos = Math.max(nanos, 0);
+        counts[bucketOf(nanos)].increment();
+        sum.add(nanos);
+    }
+
+    /**
+     * Returns the index of the bucket for the given duration.
+     *
+     * @param nanos the duration in nanoseconds.
+     * @return the index of the smallest bucket whose upper bound is at least the given duration.
+     */
+    static int bucketOf(long nanos) {
+        // Number of bits needed to represent nanos - 1 is the exponent of the next power of two.
+        int exponent = 64 - Long.numberOfLeadingZeros(Math.max(nanos - 1, 0));
+        return Math.min(Math.max(exponent - MIN_EXPONENT, 0), BUCKETS);
+    }
+
+    /**
+     * Returns the inclusive upper bound of the given finite bucket in seconds.
+     *
+     * @param bucket the index of the bucket.
+     * @return the inclusive upper bound of the bucket in seconds.
+     */
+    static double upperBoundSeconds(int bucket) {
+        return (1L << (bucket + MIN_EXPONENT)) / 1e9;
+    }
+
+    /**
+     * Returns the number of samples in each bucket. The returned counts are not cumulative, and the last element
+     * counts samples above every finite bucket bound.
+     *
+     * @return the number of samples in each bucket.
+     */
+    public long[] counts() {
+        long[] result = new long[counts.length];
+        for (int i = 0; i < counts.length; i += 1) {
+            result[i] = counts[i].sum();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the total number of recorded samples.
+     *
+     * @return the total number of recorded samples.
+     */
+    public long count() {
+        long result = 0;
+        for (LongAdder count : counts) {
+            result += count.sum();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the sum of all recorded durations in nanoseconds.
+     *
+     * @return the sum of all recorded durations in nanoseconds.
+     */
+    public long sumNanos() {
+        return sum.sum();
+    }
+}
@@ -0,0 +1,177 @@
+package metrics;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process registry of named counters and latency histograms that can be scraped in the Prometheus text exposition
+ * format. Metrics are identified by a name and an even-length list of label names and values, and are created the
+ * first time they are requested.
+ *
+ * @see LatencyHistogram
+ * @see ServerTiming
+ * @see <a href="https://prometheus.io/docs/instrumenting/exposition_formats/">Prometheus exposition formats</a>
+ */
+public class MetricsRegistry {
+    /**
+     * {@link Map} of each metric name to its help text.
+     */
+    private final Map<String, String> help;
+    /**
+     * {@link Map} of each counter name to its counters ordered by their formatted labels.
+     */
+    private final Map<String, NavigableMap<String, LongAdder>> counters;
+    /**
+     * {@link Map} of each histogram name to its histograms ordered by their formatted labels.
+     */
+    private final Map<String, NavigableMap<String, LatencyHistogram>> histograms;
+
+    /**
+     * Constructs an empty registry.
+     */
+    public MetricsRegistry() {
+        help = new ConcurrentHashMap<>();
+        counters = new ConcurrentSkipListMap<>();
+        histograms = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * Returns the counter with the given name and labels, creating it if it does not already exist.
+     *
+     * @param name   the metric name.
+     * @param help   the description of the metric.
+     * @param labels alternating label names and values.
+     * @return the counter with the given name and labels.
+     */
+    public LongAdder counter(String name, String help, String... labels) {
+        this.help.putIfAbsent(name, help);
+        return counters.computeIfAbsent(name, k -> new ConcurrentSkipListMap<>())
+                .computeIfAbsent(format(labels), k -> new LongAdder());
+    }
+
+    /**
+     * Returns the histogram with the given name and labels, creating it if it does not already exist.
+     *
+     * @param name   the metric name.
+     * @param help   the description of the metric.
+     * @param labels alternating label names and values.
+     * @return the histogram with the given name and labels.
+     */
+    public LatencyHistogram histogram(String name, String help, String... labels) {
+        this.help.putIfAbsent(name, help);
+        return histograms.computeIfAbsent(name, k -> new ConcurrentSkipListMap<>())
+                .computeIfAbsent(format(labels), k -> new LatencyHistogram());
+    }
+
+    /**
+     * Returns all metrics in the Prometheus text exposition format.
+     *
+     * @return all metrics in the Prometheus text exposition format.
+     */
+    public String scrape() {
+        StringBuilder result = new StringBuilder();
+        for (Map.Entry<String, NavigableMap<String, LongAdder>> family : counters.entrySet()) {
+            String name = family.getKey();
+            header(result, name, "counter");
+            for (Map.Entry<String, LongAdder> entry : family.getValue().entrySet()) {
+                sample(result, name, entry.getKey(), entry.getValue().sum());
+            }
+        }
+        for (Map.Entry<String, NavigableMap<String, LatencyHistogram>> family : histograms.entrySet()) {
+            String name = family.getKey();
+            header(result, name, "histogram");
+            for (Map.Entry<String, LatencyHistogram> entry : family.getValue().entrySet()) {
+                String labels = entry.getKey();
+                String prefix = labels.isEmpty() ? "" : labels + ",";
+                long[] counts = entry.getValue().counts();
+                long cumulative = 0;
+                for (int i = 0; i < LatencyHistogram.BUCKETS; i += 1) {
+                    cumulative += counts[i];
+                    String le = Double.toString(LatencyHistogram.upperBoundSeconds(i));
+                    sample(result, name + "_bucket", prefix + "le=\"" + le + "\"", cumulative);
+                }
+                cumulative += counts[LatencyHistogram.BUCKETS];
+                sample(result, name + "_bucket", prefix + "le=\"+Inf\"", cumulative);
+                result.append(name).append("_sum");
+                labels(result, labels);
+                result.append(' ').append(entry.getValue().sumNanos() / 1e9).append('\n');
+                sample(result, name + "_count", labels, cumulative);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Appends the help and type comment lines for the named metric.
+     *
+     * @param result the builder for the exposition text.
+     * @param name   the metric name.
+     * @param type   the Prometheus metric type.
+     */
+    private void header(StringBuilder result, String name, String type) {
+        result.append("# HELP ").append(name).append(' ').append(help.getOrDefault(name, "")).append('\n');
+        result.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    /**
+     * Appends a single sample line.
+     *
+     * @param result the builder for the exposition text.
+     * @param name   the sample name.
+     * @param labels the formatted labels (or the empty string).
+     * @param value  the sample value.
+     */
+    private static void sample(StringBuilder result, String name, String labels, long value) {
+        result.append(name);
+        labels(result, labels);
+        result.append(' ').append(value).append('\n');
+    }
+
+    /**
+     * Appends the braced label set if there are any labels.
+     *
+     * @param result the builder for the exposition text.
+     * @param labels the formatted labels (or the empty string).
+     */
+    private static void labels(StringBuilder result, String labels) {
+        if (!labels.isEmpty()) {
+            result.append('{').append(labels).append('}');
+        }
+    }
+
+    /**
+     * Returns the label names and values formatted as a comma-separated list of {@code name="value"} pairs.
+     *
+     * @param labels alternating label names and values.
+     * @return the formatted labels.
+     * @throws IllegalArgumentException if the labels are not given in name-value pairs.
+     */
+    private static String format(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name-value pairs");
+        }
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                result.append(',');
+            }
+            result.append(labels[i]).append("=\"");
+            String value = labels[i + 1];
+            for (int j = 0; j < value.length(); j += 1) {
+                char c = value.charAt(j);
+                if (c == '\\' || c == '"') {
+                    result.append('\\').append(c);
+                } else if (c == '\n') {
+                    result.append("\\n");
+                } else {
+                    result.append(c);
+                }
+            }
+            result.append('"');
+        }
+        return result.toString();
+    }
+}
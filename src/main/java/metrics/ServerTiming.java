@@ -0,0 +1,77 @@
+package metrics;
+
+import java.util.Locale;
+
+/**
+ * Stage timings for a single request. Each measured stage is recorded into a per-endpoint, per-stage
+ * {@link LatencyHistogram} and also kept for the {@code Server-Timing} response header so that a slow request can be
+ * diagnosed from the browser developer tools.
+ *
+ * @see MetricsRegistry
+ * @see <a href="https://www.w3.org/TR/server-timing/">Server Timing</a>
+ */
+public class ServerTiming {
+    /**
+     * Name of the histogram family for request-handling stages.
+     */
+    public static final String METRIC = "huskymaps_stage_seconds";
+    /**
+     * The registry for recording stage latencies.
+     */
+    private final MetricsRegistry registry;
+    /**
+     * The endpoint label for recorded stage latencies.
+     */
+    private final String endpoint;
+    /**
+     * The {@code Server-Timing} header value built so far.
+     */
+    private final StringBuilder header;
+
+    /**
+     * Constructs an empty instance recording into the given registry under the given endpoint.
+     *
+     * @param registry the registry for recording stage latencies.
+     * @param endpoint the endpoint label for recorded stage latencies.
+     */
+    public ServerTiming(MetricsRegistry registry, String endpoint) {
+        this.registry = registry;
+        this.endpoint = endpoint;
+        this.header = new StringBuilder();
+    }
+
+    /**
+     * Returns the current time for measuring a stage that begins now.
+     *
+     * @return the current time in nanoseconds.
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the stage that began at the given start time and ends now.
+     *
+     * @param stage the name of the stage, which must be a valid header token.
+     * @param start the start time returned by {@link #start()}.
+     */
+    public void stop(String stage, long start) {
+        long nanos = System.nanoTime() - start;
+        registry.histogram(METRIC, "Latency of each request-handling stage.",
+                "endpoint", endpoint, "stage", stage).record(nanos);
+        if (!header.isEmpty()) {
+            header.append(", ");
+        }
+        header.append(stage).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1e6));
+    }
+
+    /**
+     * Returns the {@code Server-Timing} header value with durations in milliseconds.
+     *
+     * @return the {@code Server-Timing} header value.
+     */
+    @Override
+    public String toString() {
+        return header.toString();
+    }
+}
@@ -0,0 +1,34 @@
+package profiling;
+
+import jdk.jfr.*;
+
+/**
+ * JDK Flight Recorder event for a single autocomplete query. The duration of the event is the time spent finding and
+ * ranking matches.
+ *
+ * @see autocomplete.Autocomplete
+ */
+@Name("huskymaps.AutocompleteQuery")
+@Label("Autocomplete Query")
+@Category({"Husky Maps", "Search"})
+@Description("Prefix search for matching terms")
+@StackTrace(false)
+public class AutocompleteQueryEvent extends Event {
+    @Label("Implementation")
+    public String implementation;
+
+    @Label("Prefix Length")
+    public int prefixLength;
+
+    @Label("Match Count")
+    @Description("Number of top-weighted matches returned for the prefix")
+    public int matchCount;
+
+    @Label("Word Match Count")
+    @Description("Number of matches returned because a later word of the name, not its start, matched the prefix")
+    public int wordMatchCount;
+
+    @Label("Fuzzy")
+    @Description("Whether no name started with the prefix and typo-tolerant matching was used")
+    public boolean fuzzy;
+}
@@ -0,0 +1,35 @@
+package profiling;
+
+import jdk.jfr.*;
+
+/**
+ * JDK Flight Recorder event for a single-pair shortest path query. The duration of the event is the time spent
+ * searching, and its fields describe how much of the graph the search explored.
+ *
+ * @see graphs.shortestpaths.AStarSolver
+ */
+@Name("huskymaps.RouteQuery")
+@Label("Route Query")
+@Category({"Husky Maps", "Routing"})
+@Description("Single-pair shortest path search")
+@StackTrace(false)
+public class RouteQueryEvent extends Event {
+    @Label("Solver")
+    public String solver;
+
+    @Label("Settled Vertices")
+    @Description("Number of vertices removed from the perimeter")
+    public int settledVertices;
+
+    @Label("Relaxed Edges")
+    @Description("Number of edges that improved the distance to their destination vertex")
+    public int relaxedEdges;
+
+    @Label("Priority Queue Operations")
+    @Description("Number of add, change-priority and remove-min operations on the perimeter")
+    public int pqOperations;
+
+    @Label("Path Length")
+    @Description("Number of vertices on the resulting path")
+    public int pathLength;
+}
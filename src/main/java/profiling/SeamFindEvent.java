@@ -0,0 +1,28 @@
+package profiling;
+
+import jdk.jfr.*;
+
+/**
+ * JDK Flight Recorder event for finding a single seam. The duration of the event is the time spent in the
+ * {@link seamfinding.SeamFinder}.
+ *
+ * @see seamfinding.SeamFinder
+ */
+@Name("huskymaps.SeamFind")
+@Label("Seam Find")
+@Category({"Husky Maps", "Seam Carving"})
+@Description("Minimum-energy seam search")
+@StackTrace(false)
+public class SeamFindEvent extends Event {
+    @Label("Finder")
+    public String finder;
+
+    @Label("Orientation")
+    public String orientation;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+}
@@ -0,0 +1,75 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link LoadGenerator} class.
+ *
+ * @see LoadGenerator
+ */
+public class LoadGeneratorTests {
+    /**
+     * Longest replayed pause between requests.
+     */
+    private static final Duration GAP = Duration.ofSeconds(60);
+
+    /**
+     * Writes the given lines to a temporary request log and returns its path.
+     */
+    private static Path log(String... lines) throws IOException {
+        Path result = Files.createTempFile("requests", ".log");
+        result.toFile().deleteOnExit();
+        Files.write(result, List.of(lines));
+        return result;
+    }
+
+    @Test
+    void replaySortsByArrival() throws IOException {
+        // Lines are written on completion, so a slow request that arrived first is logged last.
+        Path log = log(
+                "1000200\t/search?term=b",
+                "1000100\t/search?term=a",
+                "1000200\t/search?term=c",
+                "1000000\t/map/slow",
+                "1000500\t/search?term=d");
+        List<String> paths = new ArrayList<>();
+        long[] offsets = LoadGenerator.replay(log, paths, 1, GAP);
+        assertEquals(List.of("/map/slow", "/search?term=a", "/search?term=b", "/search?term=c", "/search?term=d"),
+                paths);
+        assertArrayEquals(new long[]{0, 100_000_000, 200_000_000, 200_000_000, 500_000_000}, offsets);
+
+        paths.clear();
+        offsets = LoadGenerator.replay(log, paths, 2, GAP);
+        assertArrayEquals(new long[]{0, 50_000_000, 100_000_000, 100_000_000, 250_000_000}, offsets);
+    }
+
+    @Test
+    void replayWithoutTimestamps() throws IOException {
+        List<String> paths = new ArrayList<>();
+        assertNull(LoadGenerator.replay(log("/search?term=b", "", "/search?term=a"), paths, 1, GAP));
+        assertEquals(List.of("/search?term=b", "/search?term=a"), paths);
+    }
+
+    @Test
+    void replayClosesGapsBetweenRuns() throws IOException {
+        // Two server runs three hours apart appended to the same log.
+        Path log = log(
+                "1000000\t/search?term=a",
+                "1000250\t/search?term=b",
+                "11800000\t/search?term=c",
+                "11800100\t/search?term=d");
+        List<String> paths = new ArrayList<>();
+        long[] offsets = LoadGenerator.replay(log, paths, 1, GAP);
+        assertArrayEquals(new long[]{0, 250_000_000, 60_250_000_000L, 60_350_000_000L}, offsets);
+        paths.clear();
+        offsets = LoadGenerator.replay(log, paths, 1, Duration.ofMillis(200));
+        assertArrayEquals(new long[]{0, 200_000_000, 400_000_000, 500_000_000}, offsets);
+    }
+}
@@ -0,0 +1,119 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link MapReloader} class. The loaders return null rather than loading map data, since the reloader
+ * only hands out the loaded map without using it.
+ *
+ * @see MapReloader
+ */
+public class MapReloaderTests {
+    /**
+     * Maximum time to wait for a background reload to reach an expected state.
+     */
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * Waits until the given condition holds, failing the test if it does not hold before the timeout.
+     */
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for reload");
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Returns a loader whose first call returns immediately and whose later calls wait for the given latch.
+     */
+    private static Callable<MapGraph> blockingAfterFirst(CountDownLatch latch) {
+        AtomicInteger calls = new AtomicInteger();
+        return () -> {
+            if (calls.getAndIncrement() > 0) {
+                assertTrue(latch.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+            }
+            return null;
+        };
+    }
+
+    @Test
+    void rejectsConcurrentReload() throws Exception {
+        CountDownLatch loaded = new CountDownLatch(1);
+        MapReloader maps = new MapReloader(blockingAfterFirst(loaded));
+        assertTrue(maps.reload());
+        assertTrue(maps.reloading());
+        assertFalse(maps.reload());
+        assertEquals(0, maps.generation());
+        loaded.countDown();
+        await(() -> !maps.reloading());
+        assertEquals(1, maps.generation());
+        assertTrue(maps.reload());
+        await(() -> !maps.reloading());
+        assertEquals(2, maps.generation());
+    }
+
+    @Test
+    void acquiresNewGenerationAfterSwap() throws Exception {
+        MapReloader maps = new MapReloader(() -> null);
+        try (MapReloader.Generation generation = maps.acquire()) {
+            assertEquals(0, generation.number());
+        }
+        assertTrue(maps.reload());
+        await(() -> maps.generation() == 1);
+        try (MapReloader.Generation generation = maps.acquire()) {
+            assertEquals(1, generation.number());
+        }
+    }
+
+    @Test
+    void waitsForReadersOfReplacedGeneration() throws Exception {
+        MapReloader maps = new MapReloader(() -> null);
+        MapReloader.Generation previous = maps.acquire();
+        MapReloader.Generation other = maps.acquire();
+        assertTrue(maps.reload());
+        await(() -> maps.generation() == 1);
+        // New readers of the current generation do not hold up the grace period.
+        try (MapReloader.Generation generation = maps.acquire()) {
+            assertEquals(1, generation.number());
+        }
+        other.close();
+        Thread.sleep(100);
+        assertTrue(maps.reloading());
+        assertFalse(maps.reload());
+        previous.close();
+        await(() -> !maps.reloading());
+        assertEquals(1, maps.generation());
+    }
+
+    @Test
+    void keepsGenerationWhenLoaderFails() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        MapReloader maps = new MapReloader(() -> {
+            if (calls.getAndIncrement() > 0) {
+                throw new IllegalStateException("corrupt data");
+            }
+            return null;
+        });
+        MapReloader.Generation before = maps.acquire();
+        before.close();
+        assertTrue(maps.reload());
+        await(() -> !maps.reloading());
+        assertEquals(2, calls.get());
+        assertEquals(0, maps.generation());
+        try (MapReloader.Generation generation = maps.acquire()) {
+            assertSame(before, generation);
+        }
+        // A failed reload does not prevent the next one.
+        assertTrue(maps.reload());
+        await(() -> !maps.reloading());
+        assertEquals(0, maps.generation());
+    }
+}
@@ -0,0 +1,91 @@
+import graphs.shortestpaths.DijkstraSolver;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.shape.Point;
+import profiling.AutocompleteQueryEvent;
+import profiling.RouteQueryEvent;
+import profiling.SeamFindEvent;
+import seamfinding.AdjacencyListSeamFinder;
+import seamfinding.energy.DualGradientEnergyFunction;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the JDK Flight Recorder events in the {@link profiling} package, checking that a route, a search and a
+ * seam find each commit one event whose fields describe that query. The map is a small network from
+ * {@link OsmGenerator} so that the test does not depend on the Seattle extract.
+ *
+ * @see RouteQueryEvent
+ * @see AutocompleteQueryEvent
+ * @see SeamFindEvent
+ */
+public class ProfilingEventsTests {
+    @Test
+    void recordsQueryFields() throws Exception {
+        Path directory = Files.createTempDirectory("profiling");
+        String osmPath = directory.resolve("network.osm.gz").toString();
+        String placesPath = directory.resolve("places.tsv").toString();
+        new OsmGenerator(2500, 373).write(osmPath, placesPath);
+        MapGraph map = new MapGraph(osmPath, placesPath, SpatialContext.GEO);
+        String name = Files.readAllLines(Path.of(placesPath)).get(0).split("\t")[0];
+        List<Point> locations = map.getLocations(name);
+        assertFalse(locations.isEmpty());
+        SeamCarver carver = new SeamCarver(new File("data/seamcarving/10x12.png"),
+                new DualGradientEnergyFunction(), new AdjacencyListSeamFinder(DijkstraSolver::new));
+
+        Path dump = directory.resolve("events.jfr");
+        List<Point> route;
+        List<CharSequence> matches;
+        try (Recording recording = new Recording()) {
+            recording.enable(RouteQueryEvent.class);
+            recording.enable(AutocompleteQueryEvent.class);
+            recording.enable(SeamFindEvent.class);
+            recording.start();
+            route = map.shortestPath(map.closest(SpatialContext.GEO.getShapeFactory().pointLatLon(47.59, -122.31)),
+                    locations.get(0));
+            matches = map.getLocationsByPrefix(name.substring(0, 3), MapServer.MAX_MATCHES);
+            carver.removeVertical();
+            recording.stop();
+            recording.dump(dump);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+
+        RecordedEvent routeEvent = only(events, "huskymaps.RouteQuery");
+        assertEquals("AStarSolver", routeEvent.getString("solver"));
+        assertTrue(routeEvent.getInt("settledVertices") > 0);
+        assertTrue(routeEvent.getInt("relaxedEdges") > 0);
+        assertEquals(1 + routeEvent.getInt("settledVertices") + routeEvent.getInt("relaxedEdges"),
+                routeEvent.getInt("pqOperations"));
+        assertEquals(route.size(), routeEvent.getInt("pathLength"));
+
+        RecordedEvent searchEvent = only(events, "huskymaps.AutocompleteQuery");
+        assertFalse(matches.isEmpty());
+        assertEquals("NormalizedAutocomplete", searchEvent.getString("implementation"));
+        assertEquals(3, searchEvent.getInt("prefixLength"));
+        assertEquals(matches.size(), searchEvent.getInt("matchCount"));
+        assertFalse(searchEvent.getBoolean("fuzzy"));
+
+        RecordedEvent seamEvent = only(events, "huskymaps.SeamFind");
+        assertEquals("AdjacencyListSeamFinder", seamEvent.getString("finder"));
+        assertEquals("vertical", seamEvent.getString("orientation"));
+        assertEquals(10, seamEvent.getInt("width"));
+        assertEquals(12, seamEvent.getInt("height"));
+    }
+
+    /**
+     * Returns the only event with the given name, failing the test if there is not exactly one.
+     */
+    private static RecordedEvent only(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+}
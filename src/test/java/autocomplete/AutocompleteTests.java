@@ -5,6 +5,7 @@ import org.junit.jupiter.api.*;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -101,6 +102,58 @@ public abstract class AutocompleteTests {
         assertEquals(expected, testing.allMatches("Sea"));
     }
 
+    @Test
+    void streamMatchesAllMatches() {
+        for (String prefix : new String[]{"Sea", "San", "Z", "Qqq", "A"}) {
+            List<CharSequence> expected = testing.allMatches(prefix);
+            assertEquals(expected, testing.stream(prefix).toList());
+            assertEquals(expected.size(), testing.stream(prefix).parallel().count());
+            assertEquals(expected.subList(0, Math.min(3, expected.size())), testing.stream(prefix).limit(3).toList());
+            assertEquals(new HashSet<>(expected), testing.stream(prefix).parallel().collect(Collectors.toSet()));
+        }
+    }
+
+    @Test
+    void countMatchesRandomPrefixes() {
+        Random random = new Random(373);
+        for (int i = 0; i < 100; i += 1) {
+            String city = cities.get(random.nextInt(cities.size()));
+            String prefix = city.substring(0, 1 + random.nextInt(Math.min(city.length(), 4)));
+            assertEquals(reference.allMatches(prefix).size(), testing.countMatches(prefix));
+        }
+        assertEquals(0, testing.countMatches("Qqq"));
+        assertEquals(0, testing.countMatches(""));
+    }
+
+    @Test
+    void addAllIncrementally() {
+        Random random = new Random(373);
+        List<String> shuffled = new ArrayList<>(cities.subList(0, 2000));
+        Collections.shuffle(shuffled, random);
+        Autocomplete expected = new TreeSetAutocomplete();
+        Autocomplete actual = createAutocomplete();
+        for (int start = 0; start < shuffled.size(); ) {
+            int end = Math.min(shuffled.size(), start + 1 + random.nextInt(400));
+            expected.addAll(shuffled.subList(start, end));
+            actual.addAll(shuffled.subList(start, end));
+            start = end;
+            for (String prefix : new String[]{"A", "Ba", "San", "Z"}) {
+                assertEquals(new HashSet<>(expected.allMatches(prefix)), new HashSet<>(actual.allMatches(prefix)));
+            }
+        }
+    }
+
+    @Test
+    void topMatchesSubsetOfAllMatches() {
+        for (String prefix : new String[]{"Sea", "San", "Z", "Qqq"}) {
+            List<CharSequence> all = testing.allMatches(prefix);
+            List<CharSequence> top = testing.topMatches(prefix, 5);
+            assertEquals(Math.min(5, all.size()), top.size());
+            assertEquals(top.size(), new HashSet<>(top).size());
+            assertTrue(all.containsAll(top));
+        }
+    }
+
     /**
      * Asserts that the reference and testing implementations' {@code allMatches} methods produce
      * the same results ignoring order.
@@ -0,0 +1,115 @@
+package autocomplete;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link CachingAutocomplete} class.
+ *
+ * @see CachingAutocomplete
+ */
+public class CachingAutocompleteTests extends AutocompleteTests {
+    @Override
+    public Autocomplete createAutocomplete() {
+        return new CachingAutocomplete(new TernarySearchTreeAutocomplete(), 5, 100);
+    }
+
+    @Test
+    void keystrokesMatchUncached() {
+        Random random = new Random(373);
+        Map<String, Integer> words = Fixtures.randomWords(random, 2000);
+        TernarySearchTreeAutocomplete reference = new TernarySearchTreeAutocomplete();
+        reference.addAll(words);
+        CachingAutocomplete testing = new CachingAutocomplete(new TernarySearchTreeAutocomplete(), 10, 50);
+        testing.addAll(words);
+        List<String> list = new ArrayList<>(words.keySet());
+        for (int i = 0; i < 500; i += 1) {
+            // Type a word one keystroke at a time, asking for a random number of matches after each.
+            String word = list.get(random.nextInt(list.size()));
+            for (int length = 1; length <= word.length(); length += 1) {
+                String prefix = word.substring(0, length);
+                int k = 1 + random.nextInt(12);
+                assertEquals(reference.topMatches(prefix, k), testing.topMatches(prefix, k));
+            }
+        }
+        assertTrue(testing.hits() > 0);
+        assertTrue(testing.refinements() > 0);
+        assertTrue(testing.misses() > 0);
+    }
+
+    @Test
+    void refinesNormalizedKeys() {
+        NormalizedAutocomplete normalized = new NormalizedAutocomplete(new TernarySearchTreeAutocomplete());
+        normalized.addAll(Map.of("Café Vita", 3, "Cafe Allegro", 2, "Caffè Ladro", 1, "Seattle", 4));
+        CachingAutocomplete testing = new CachingAutocomplete(normalized, NormalizedAutocomplete::fold, 10, 10);
+        assertEquals(List.of("Café Vita", "Cafe Allegro", "Caffè Ladro"), testing.topMatches("ca", 10));
+        assertEquals(List.of("Café Vita", "Cafe Allegro"), testing.topMatches("CAFE", 10));
+        assertEquals(List.of("Café Vita"), testing.topMatches("café v", 10));
+        assertEquals(2, testing.refinements());
+        assertEquals(1, testing.misses());
+        assertEquals(List.of("Café Vita", "Cafe Allegro"), testing.topMatches("Cafe", 2));
+        assertEquals(1, testing.hits());
+    }
+
+    @Test
+    void addAllClearsCache() {
+        CachingAutocomplete testing = new CachingAutocomplete(new TernarySearchTreeAutocomplete(), 10, 10);
+        testing.addAll(Map.of("seattle", 1));
+        assertEquals(List.of("seattle"), testing.topMatches("sea", 10));
+        testing.addAll(Map.of("seaside", 2));
+        assertEquals(List.of("seaside", "seattle"), testing.topMatches("sea", 10));
+        assertEquals(List.of("seaside"), testing.topMatches("seas", 10));
+    }
+
+    @Test
+    void evictsUnreferencedKeys() {
+        CachingAutocomplete testing = new CachingAutocomplete(new TernarySearchTreeAutocomplete(), 10, 4);
+        Map<String, Integer> words = new HashMap<>();
+        for (int i = 0; i < 50; i += 1) {
+            words.put("key" + i, i);
+        }
+        words.put("hot", 50);
+        testing.addAll(words);
+        testing.topMatches("hot", 5);
+        for (int i = 0; i < 50; i += 1) {
+            testing.topMatches("key" + i, 5);
+            assertTrue(testing.size() <= 4);
+            // The hot key is hit between insertions, so the clock hand always gives it a second chance.
+            testing.topMatches("hot", 5);
+        }
+        assertEquals(50, testing.hits());
+        assertEquals(51, testing.misses());
+    }
+
+    @Test
+    void refinesWordMatches() {
+        TokenAutocomplete words = new TokenAutocomplete();
+        words.addAll(Map.of(
+                "The Northlake Tavern & Pizza House", 5,
+                "Pizza Hut", 3,
+                "Tavern Law", 4,
+                "Piroshky Piroshky", 1,
+                "Café Pizzeria", 2
+        ));
+        CachingAutocomplete testing = new CachingAutocomplete(words, NormalizedAutocomplete::fold,
+                TokenAutocomplete::matches, 10, 10);
+        for (String query : new String[]{"p", "pi", "piz", "pizza", "pizza h", "pizza ho", "t", "ta", "tav", "tavern",
+                "tavern p", "tavern pi", "CAFE", "café p"}) {
+            assertEquals(words.topMatches(query, 10), testing.topMatches(query, 10), query);
+        }
+        // Only the first letters and "cafe", which has no cached ancestor, ask the token index.
+        assertEquals(3, testing.misses());
+        assertEquals(11, testing.refinements());
+    }
+
+    @Test
+    void tokenMatches() {
+        assertTrue(TokenAutocomplete.matches("pi tav", "the northlake tavern pizza house"));
+        assertTrue(TokenAutocomplete.matches("pi p", "pizza hut"));
+        assertFalse(TokenAutocomplete.matches("pizza law", "pizza hut"));
+        assertFalse(TokenAutocomplete.matches("", "pizza hut"));
+    }
+}
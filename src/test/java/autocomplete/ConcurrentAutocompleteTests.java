@@ -0,0 +1,99 @@
+package autocomplete;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link ConcurrentAutocomplete} class.
+ *
+ * @see ConcurrentAutocomplete
+ */
+public class ConcurrentAutocompleteTests extends AutocompleteTests {
+    @Override
+    public Autocomplete createAutocomplete() {
+        return new ConcurrentAutocomplete(TernarySearchTreeAutocomplete::new);
+    }
+
+    @Test
+    void topMatchesMergesBaseAndDelta() {
+        Autocomplete testing = createAutocomplete();
+        Map<String, Integer> base = new HashMap<>();
+        for (int i = 0; i < 2000; i += 1) {
+            base.put("alp" + i, i % 100);
+        }
+        testing.addAll(base);
+        testing.addAll(Map.of("alpha", 150, "alps", 50));
+        List<CharSequence> top = testing.topMatches("alp", 3);
+        assertEquals("alpha", top.get(0).toString());
+        assertTrue(top.get(1).toString().endsWith("99"));
+        assertTrue(top.get(2).toString().endsWith("99"));
+        assertEquals(List.of("alps"), testing.topMatches("alps", 3).stream().map(CharSequence::toString).toList());
+        // Reweighting a term in the base moves it to the top.
+        testing.addAll(Map.of("alp5", 1000));
+        assertEquals("alp5", testing.topMatches("alp", 1).get(0).toString());
+        assertEquals(2002, testing.countMatches("alp"));
+    }
+
+    @Test
+    void readersSeeWholeBatches() throws InterruptedException {
+        Autocomplete testing = createAutocomplete();
+        int batches = 50;
+        int batchSize = 100;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] readers = new Thread[4];
+        Thread writer = new Thread(() -> {
+            for (int b = 0; b < batches; b += 1) {
+                Map<String, Integer> batch = new HashMap<>();
+                for (int i = 0; i < batchSize; i += 1) {
+                    batch.put(String.format("term%05d", b * batchSize + i), i);
+                }
+                testing.addAll(batch);
+            }
+        });
+        for (int r = 0; r < readers.length; r += 1) {
+            readers[r] = new Thread(() -> {
+                int previous = 0;
+                while (previous < batches * batchSize) {
+                    int count = testing.countMatches("term");
+                    if (count % batchSize != 0 || count < previous) {
+                        failure.compareAndSet(null, new AssertionError("Saw " + count + " after " + previous));
+                        return;
+                    }
+                    previous = count;
+                }
+            });
+            readers[r].start();
+        }
+        writer.start();
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertNull(failure.get());
+        assertEquals(batches * batchSize, testing.allMatches("term").size());
+    }
+
+    @Test
+    void topMatchesRanksUnweightedImplementations() {
+        // The default topMatches of a binary search lists matches alphabetically rather than by weight.
+        Autocomplete testing = new ConcurrentAutocomplete(BinarySearchAutocomplete::new);
+        testing.addAll(Map.of("seattle", 3, "seaside", 1, "seatac", 2));
+        testing.addAll(Map.of("sea", 5));
+        assertEquals(List.of("sea", "seattle", "seatac", "seaside"),
+                testing.topMatches("sea", 10).stream().map(CharSequence::toString).toList());
+        assertEquals(2, testing.topMatches("sea", 2).size());
+
+        Autocomplete normalized = new ConcurrentAutocomplete(
+                () -> new NormalizedAutocomplete(new TernarySearchTreeAutocomplete()));
+        normalized.addAll(Map.of("Café Vita", 3, "Cafe Allegro", 2));
+        normalized.addAll(Map.of("Caffè Ladro", 4));
+        assertEquals(List.of("Caffè Ladro", "Café Vita", "Cafe Allegro"),
+                normalized.topMatches("caf", 10).stream().map(CharSequence::toString).toList());
+    }
+}
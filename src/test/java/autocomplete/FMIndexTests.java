@@ -0,0 +1,70 @@
+package autocomplete;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link FMIndex} class, using {@link SuffixArrayAutocomplete} as the reference implementation.
+ *
+ * @see FMIndex
+ */
+public class FMIndexTests {
+    @Test
+    void compareRandomPatterns() {
+        Random random = new Random(373);
+        for (int trial = 0; trial < 20; trial += 1) {
+            String text = Fixtures.randomDna(random, 1 + random.nextInt(3000));
+            SuffixArrayAutocomplete reference = new SuffixArrayAutocomplete(text);
+            FMIndex testing = new FMIndex(text);
+            for (int i = 0; i < 50; i += 1) {
+                String pattern;
+                if (random.nextBoolean()) {
+                    int start = random.nextInt(text.length());
+                    pattern = text.substring(start, Math.min(text.length(), start + 1 + random.nextInt(12)));
+                } else {
+                    pattern = Fixtures.randomDna(random, 1 + random.nextInt(8));
+                }
+                assertEquals(reference.countMatches(pattern), testing.countMatches(pattern));
+                assertArrayEquals(reference.locate(pattern), testing.locate(pattern));
+            }
+        }
+    }
+
+    @Test
+    void extractText() {
+        Random random = new Random(373);
+        String text = Fixtures.randomDna(random, 1000);
+        FMIndex testing = new FMIndex(text);
+        assertEquals(text, testing.extract(0, text.length()));
+        for (int i = 0; i < 200; i += 1) {
+            int begin = random.nextInt(text.length() + 1);
+            int end = begin + random.nextInt(text.length() - begin + 1);
+            assertEquals(text.substring(begin, end), testing.extract(begin, end));
+        }
+        List<CharSequence> matches = testing.allMatches(text.substring(500, 520));
+        assertEquals(1, matches.size());
+        assertEquals(text.substring(500), matches.get(0).toString());
+        assertEquals(text.substring(510, 530), matches.get(0).subSequence(10, 30).toString());
+    }
+
+    @Test
+    void repetitiveText() {
+        String text = "A".repeat(1000) + "C" + "A".repeat(1000);
+        FMIndex testing = new FMIndex(text);
+        assertEquals(2000, testing.countMatches("A"));
+        assertEquals(2 * (1000 - 9), testing.countMatches("A".repeat(10)));
+        assertEquals(1, testing.countMatches("A".repeat(10) + "C" + "A".repeat(990)));
+        assertArrayEquals(new int[]{990}, testing.locate("A".repeat(10) + "C"));
+        assertEquals(0, testing.countMatches("CC"));
+        assertEquals(0, testing.countMatches("AN"));
+    }
+
+    @Test
+    void rejectsNonDnaText() {
+        assertThrows(IllegalArgumentException.class, () -> new FMIndex("ACGTN"));
+    }
+}
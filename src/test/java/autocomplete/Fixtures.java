@@ -0,0 +1,48 @@
+package autocomplete;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Random test data shared by the autocomplete and DNA tests and benchmarks.
+ */
+public final class Fixtures {
+    private Fixtures() {
+    }
+
+    /**
+     * Returns a random DNA sequence of the given length.
+     *
+     * @param random the source of randomness.
+     * @param length the number of bases.
+     * @return a random sequence of the bases A, C, G and T.
+     */
+    public static String randomDna(Random random, int length) {
+        StringBuilder result = new StringBuilder(length);
+        for (int i = 0; i < length; i += 1) {
+            result.append("ACGT".charAt(random.nextInt(4)));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns random lowercase words over a small alphabet, so that many words share prefixes, each mapped to a
+     * distinct weight so that the top matches are unique.
+     *
+     * @param random the source of randomness.
+     * @param count  the number of words.
+     * @return each word mapped to its weight.
+     */
+    public static Map<String, Integer> randomWords(Random random, int count) {
+        Map<String, Integer> result = new HashMap<>();
+        while (result.size() < count) {
+            StringBuilder word = new StringBuilder();
+            for (int i = 1 + random.nextInt(8); i > 0; i -= 1) {
+                word.append((char) ('a' + random.nextInt(4)));
+            }
+            result.putIfAbsent(word.toString(), result.size());
+        }
+        return result;
+    }
+}
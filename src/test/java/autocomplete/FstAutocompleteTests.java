@@ -0,0 +1,134 @@
+package autocomplete;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link FstAutocomplete} class. Since the index is read-only, each call to {@code addAll} rebuilds
+ * the index with {@link FstBuilder} into a temporary file and maps the new file.
+ *
+ * @see FstAutocomplete
+ * @see FstBuilder
+ */
+public class FstAutocompleteTests extends AutocompleteTests {
+    @Override
+    public Autocomplete createAutocomplete() {
+        return new RebuildingAutocomplete();
+    }
+
+    @Test
+    void topMatchesSimple() {
+        Map<CharSequence, Integer> terms = Map.of(
+                "alpha", 5, "delta", 9, "do", 1, "cats", 2, "dodgy", 7, "pilot", 3, "dog", 4
+        );
+        Autocomplete testing = createAutocomplete();
+        testing.addAll(terms);
+        assertEquals(List.of("dodgy", "dog"), testing.topMatches("do", 2));
+        assertEquals(List.of("dodgy", "dog", "do"), testing.topMatches("do", 10));
+        assertEquals(List.of(), testing.topMatches("x", 10));
+    }
+
+    @Test
+    void topMatchesWeightedCities() throws IOException {
+        Map<String, Long> weights = new HashMap<>();
+        try (Scanner input = new Scanner(new FileInputStream("data/cities.tsv"))) {
+            while (input.hasNextLine()) {
+                Scanner line = new Scanner(input.nextLine()).useDelimiter("\t");
+                weights.merge(line.next(), line.nextLong(), Math::max);
+            }
+        }
+        Path file = Files.createTempFile("cities", ".fst");
+        file.toFile().deleteOnExit();
+        FstBuilder.write(weights, file);
+        FstAutocomplete testing = new FstAutocomplete(file);
+        assertEquals(weights.size(), testing.size());
+        for (String prefix : new String[]{"S", "Sea", "San", "New", "Ber", "Z"}) {
+            List<Long> expected = weights.entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith(prefix))
+                    .map(Map.Entry::getValue)
+                    .sorted(Comparator.reverseOrder())
+                    .limit(10)
+                    .toList();
+            List<Long> actual = new ArrayList<>();
+            for (CharSequence term : testing.topMatches(prefix, 10)) {
+                assertTrue(Autocomplete.isPrefixOf(prefix, term));
+                assertEquals((double) weights.get(term.toString()), testing.weight(term));
+                actual.add(weights.get(term.toString()));
+            }
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void builderRejectsUnsortedTerms() {
+        FstBuilder builder = new FstBuilder();
+        builder.add("dog", 1);
+        assertThrows(IllegalArgumentException.class, () -> builder.add("cat", 1));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("dog", 1));
+    }
+
+    /**
+     * Accumulates the added terms and rebuilds the mapped index from all of them.
+     */
+    private static class RebuildingAutocomplete implements Autocomplete {
+        private final Map<CharSequence, Number> terms = new HashMap<>();
+        private FstAutocomplete index;
+
+        @Override
+        public void addAll(Collection<? extends CharSequence> terms) {
+            for (CharSequence term : terms) {
+                this.terms.putIfAbsent(term.toString(), 0);
+            }
+            rebuild();
+        }
+
+        @Override
+        public void addAll(Map<? extends CharSequence, ? extends Number> terms) {
+            for (Map.Entry<? extends CharSequence, ? extends Number> entry : terms.entrySet()) {
+                this.terms.put(entry.getKey().toString(), entry.getValue());
+            }
+            rebuild();
+        }
+
+        @Override
+        public List<CharSequence> allMatches(CharSequence prefix) {
+            return index == null ? new ArrayList<>() : index.allMatches(prefix);
+        }
+
+        @Override
+        public int countMatches(CharSequence prefix) {
+            return index == null ? 0 : index.countMatches(prefix);
+        }
+
+        @Override
+        public Stream<CharSequence> stream(CharSequence prefix) {
+            return index == null ? Stream.empty() : index.stream(prefix);
+        }
+
+        @Override
+        public List<CharSequence> topMatches(CharSequence prefix, int k) {
+            return index == null ? new ArrayList<>() : index.topMatches(prefix, k);
+        }
+
+        private void rebuild() {
+            try {
+                Path file = Files.createTempFile("autocomplete", ".fst");
+                // Some platforms cannot delete a file while it is mapped, so delete it when the tests finish.
+                file.toFile().deleteOnExit();
+                FstBuilder.write(terms, file);
+                index = new FstAutocomplete(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
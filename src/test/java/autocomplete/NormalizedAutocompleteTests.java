@@ -0,0 +1,47 @@
+package autocomplete;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link NormalizedAutocomplete} class.
+ *
+ * @see NormalizedAutocomplete
+ */
+public class NormalizedAutocompleteTests {
+    @Test
+    void foldCaseAccentsAndPunctuation() {
+        assertEquals("starbucks", NormalizedAutocomplete.fold("STARBUCKS"));
+        assertEquals("cafe", NormalizedAutocomplete.fold("Café"));
+        assertEquals("zoes kitchen", NormalizedAutocomplete.fold("Zoë’s - Kitchen"));
+        assertEquals(NormalizedAutocomplete.fold("Joe's Pizza"), NormalizedAutocomplete.fold("Joe’s Pizza"));
+        assertEquals("st marks", NormalizedAutocomplete.fold("  St. Mark's  "));
+        assertEquals("", NormalizedAutocomplete.fold("!?"));
+    }
+
+    @Test
+    void allMatchesReturnsDisplayTerms() {
+        Autocomplete testing = new NormalizedAutocomplete(new TreeSetAutocomplete());
+        testing.addAll(List.of("Starbucks", "Starbuck's Café", "STAR", "Seattle", "!?"));
+        List<CharSequence> actual = testing.allMatches("starbucks");
+        assertEquals(2, actual.size());
+        assertTrue(actual.containsAll(List.of("Starbucks", "Starbuck's Café")));
+        assertEquals(3, testing.allMatches("Star").size());
+        assertEquals(List.of(), testing.allMatches("?"));
+    }
+
+    @Test
+    void topMatchesRanksDisplayTermsSharingKeys() {
+        Autocomplete testing = new NormalizedAutocomplete(new TernarySearchTreeAutocomplete());
+        testing.addAll(Map.of("Cafe Allegro", 5, "Café Allegro", 1, "CAFE ALLEGRO", 3, "Cafe Vita", 4));
+        assertEquals(List.of("Cafe Allegro", "Cafe Vita"), testing.topMatches("cafe", 2));
+        assertEquals(List.of("Cafe Allegro", "Cafe Vita", "CAFE ALLEGRO", "Café Allegro"),
+                testing.topMatches("CAFÉ", 10));
+        testing.addAll(Map.of("Cafe Allegro", 0));
+        assertEquals(List.of("Cafe Vita", "CAFE ALLEGRO"), testing.topMatches("cafe", 2));
+    }
+}
@@ -0,0 +1,13 @@
+package autocomplete;
+
+/**
+ * Tests for the {@link PackedBinarySearchAutocomplete} class.
+ *
+ * @see PackedBinarySearchAutocomplete
+ */
+public class PackedBinarySearchAutocompleteTests extends AutocompleteTests {
+    @Override
+    public Autocomplete createAutocomplete() {
+        return new PackedBinarySearchAutocomplete();
+    }
+}
@@ -0,0 +1,13 @@
+package autocomplete;
+
+/**
+ * Tests for the {@link RadixTrieAutocomplete} class.
+ *
+ * @see RadixTrieAutocomplete
+ */
+public class RadixTrieAutocompleteTests extends AutocompleteTests {
+    @Override
+    public Autocomplete createAutocomplete() {
+        return new RadixTrieAutocomplete();
+    }
+}
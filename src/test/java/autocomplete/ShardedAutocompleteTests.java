@@ -0,0 +1,65 @@
+package autocomplete;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link ShardedAutocomplete} class.
+ *
+ * @see ShardedAutocomplete
+ */
+public class ShardedAutocompleteTests extends AutocompleteTests {
+    @Override
+    public Autocomplete createAutocomplete() {
+        return new ShardedAutocomplete(TernarySearchTreeAutocomplete::new, 8);
+    }
+
+    @Test
+    void topMatchesMatchUnsharded() {
+        Random random = new Random(373);
+        Map<String, Integer> words = Fixtures.randomWords(random, 5000);
+        TernarySearchTreeAutocomplete reference = new TernarySearchTreeAutocomplete();
+        reference.addAll(words);
+        Autocomplete testing = new ShardedAutocomplete(TernarySearchTreeAutocomplete::new, 16);
+        testing.addAll(words);
+        for (String prefix : new String[]{"a", "b", "ab", "ca", "dd", "abc", "dcba", "bbbbbbbb", "e"}) {
+            // Single-letter prefixes span several shards, so these exercise the fan-out and merge.
+            assertEquals(reference.topMatches(prefix, 10), testing.topMatches(prefix, 10));
+            assertEquals(reference.allMatches(prefix), testing.allMatches(prefix));
+            assertEquals(reference.countMatches(prefix), testing.countMatches(prefix));
+        }
+    }
+
+    @Test
+    void fewerTermsThanShards() {
+        Autocomplete testing = new ShardedAutocomplete(TernarySearchTreeAutocomplete::new, 8);
+        testing.addAll(Map.of("seattle", 2, "seaside", 1));
+        testing.addAll(Map.of("tacoma", 3));
+        assertEquals(List.of("seattle", "seaside"), testing.topMatches("sea", 5));
+        assertEquals(List.of("tacoma"), testing.topMatches("t", 5));
+        assertEquals(2, testing.countMatches("s"));
+        assertThrows(IllegalArgumentException.class, () -> new ShardedAutocomplete(TreeSetAutocomplete::new, 0));
+    }
+
+    @Test
+    void mergesShardWeightsOnGivenExecutor() {
+        AtomicInteger tasks = new AtomicInteger();
+        Autocomplete testing = new ShardedAutocomplete(TernarySearchTreeAutocomplete::new, 4, task -> {
+            tasks.incrementAndGet();
+            task.run();
+        });
+        testing.addAll(Map.of("sa", 1, "sb", 6, "sc", 2, "sd", 5, "se", 3, "sf", 8, "sg", 4, "sh", 7));
+        tasks.set(0);
+        // The prefix spans all four shards: the first is queried on the calling thread and the rest on the executor.
+        assertEquals(List.of(new Autocomplete.WeightedTerm("sf", 8), new Autocomplete.WeightedTerm("sh", 7),
+                new Autocomplete.WeightedTerm("sb", 6)), testing.weightedTopMatches("s", 3));
+        assertEquals(3, tasks.get());
+        // Adding terms without weights keeps the weights stored in the shards.
+        testing.addAll(List.of("sb", "si"));
+        assertEquals(List.of("sf", "sh", "sb", "sd", "sg", "se", "sc", "sa", "si"), testing.topMatches("s", 10));
+    }
+}
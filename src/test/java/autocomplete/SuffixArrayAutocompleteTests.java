@@ -0,0 +1,142 @@
+package autocomplete;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.CharBuffer;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link SuffixArrayAutocomplete} class.
+ *
+ * @see SuffixArrayAutocomplete
+ */
+public class SuffixArrayAutocompleteTests {
+    @Test
+    void saisMatchesSorting() {
+        Random random = new Random(373);
+        for (int trial = 0; trial < 200; trial += 1) {
+            int length = random.nextInt(50);
+            int upper = 1 + random.nextInt(4);
+            int[] s = new int[length];
+            for (int i = 0; i < length; i += 1) {
+                s[i] = random.nextInt(upper + 1);
+            }
+            Integer[] expected = new Integer[length];
+            for (int i = 0; i < length; i += 1) {
+                expected[i] = i;
+            }
+            Arrays.sort(expected, (a, b) -> Arrays.compare(s, a, length, s, b, length));
+            assertArrayEquals(Arrays.stream(expected).mapToInt(Integer::intValue).toArray(),
+                    SuffixArrayAutocomplete.sais(s, upper));
+        }
+    }
+
+    @Test
+    void compareRandomPatterns() {
+        Random random = new Random(373);
+        for (int trial = 0; trial < 20; trial += 1) {
+            String text = Fixtures.randomDna(random, 1 + random.nextInt(2000));
+            SuffixArrayAutocomplete testing = new SuffixArrayAutocomplete(text);
+            for (int i = 0; i < 50; i += 1) {
+                String pattern;
+                if (random.nextBoolean()) {
+                    int start = random.nextInt(text.length());
+                    pattern = text.substring(start, Math.min(text.length(), start + 1 + random.nextInt(12)));
+                } else {
+                    pattern = Fixtures.randomDna(random, 1 + random.nextInt(8));
+                }
+                List<String> expected = new ArrayList<>();
+                for (int start = 0; start < text.length(); start += 1) {
+                    if (text.startsWith(pattern, start)) {
+                        expected.add(text.substring(start));
+                    }
+                }
+                Collections.sort(expected);
+                List<String> actual = testing.allMatches(pattern).stream().map(CharSequence::toString).toList();
+                assertEquals(expected, actual);
+                assertEquals(expected.size(), testing.countMatches(pattern));
+                int[] positions = testing.locate(pattern);
+                assertEquals(expected.size(), positions.length);
+                for (int position : positions) {
+                    assertTrue(text.startsWith(pattern, position));
+                }
+            }
+        }
+    }
+
+    @Test
+    void repetitiveText() {
+        String text = "A".repeat(1000) + "C" + "A".repeat(1000);
+        SuffixArrayAutocomplete testing = new SuffixArrayAutocomplete(text);
+        assertEquals(2000, testing.countMatches("A"));
+        assertEquals(2 * (1000 - 9), testing.countMatches("A".repeat(10)));
+        assertEquals(1, testing.countMatches("A".repeat(10) + "C" + "A".repeat(990)));
+        assertEquals(0, testing.countMatches("CC"));
+        assertEquals(List.of("CAA"), testing.allMatches("C").stream().map(s -> s.subSequence(0, 3).toString()).toList());
+    }
+
+    @Nested
+    @Disabled
+    class RuntimeExperiments {
+        /**
+         * Maximum length of the random DNA text.
+         */
+        public static final int MAX_SIZE = 1_000_000;
+        /**
+         * Step size increment.
+         */
+        private static final int STEP = 200_000;
+
+        /**
+         * Compares building a {@link TreeSetAutocomplete} of suffix views, the approach previously used by
+         * {@code DNASearch}, against building a {@link SuffixArrayAutocomplete}. Prints comma-separated rows of
+         * size, tree set build milliseconds and megabytes, and suffix array build milliseconds and megabytes.
+         */
+        @Test
+        void buildTimeAndMemory() {
+            Random random = new Random(373);
+            for (int size = STEP; size <= MAX_SIZE; size += STEP) {
+                String text = Fixtures.randomDna(random, size);
+                List<CharSequence> suffixes = new AbstractList<>() {
+                    @Override
+                    public CharSequence get(int index) {
+                        return CharBuffer.wrap(text, index, text.length());
+                    }
+
+                    @Override
+                    public int size() {
+                        return text.length();
+                    }
+                };
+                long before = usedHeap();
+                long start = System.nanoTime();
+                Autocomplete treeSet = new TreeSetAutocomplete();
+                treeSet.addAll(suffixes);
+                long treeSetMillis = (System.nanoTime() - start) / 1_000_000;
+                long treeSetMegabytes = (usedHeap() - before) >> 20;
+                int expected = treeSet.countMatches("ACGT");
+                treeSet = null;
+
+                before = usedHeap();
+                start = System.nanoTime();
+                Autocomplete suffixArray = new SuffixArrayAutocomplete(text);
+                long suffixArrayMillis = (System.nanoTime() - start) / 1_000_000;
+                long suffixArrayMegabytes = (usedHeap() - before) >> 20;
+                assertEquals(expected, suffixArray.countMatches("ACGT"));
+                System.out.println(size + "," + treeSetMillis + "," + treeSetMegabytes + ","
+                        + suffixArrayMillis + "," + suffixArrayMegabytes);
+            }
+        }
+
+        private static long usedHeap() {
+            for (int i = 0; i < 3; i += 1) {
+                System.gc();
+            }
+            return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+        }
+    }
+}
@@ -1,5 +1,13 @@
 package autocomplete;
 
+import org.junit.jupiter.api.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 /**
  * Tests for the {@link TernarySearchTreeAutocomplete} class.
  *
@@ -10,4 +18,120 @@ public class TernarySearchTreeAutocompleteTests extends AutocompleteTests {
     public Autocomplete createAutocomplete() {
         return new TernarySearchTreeAutocomplete();
     }
+
+    @Test
+    void topMatchesSimple() {
+        Map<CharSequence, Integer> terms = Map.of(
+                "alpha", 5, "delta", 9, "do", 1, "cats", 2, "dodgy", 7, "pilot", 3, "dog", 4
+        );
+        Autocomplete testing = createAutocomplete();
+        testing.addAll(terms);
+        assertEquals(List.of("dodgy", "dog"), testing.topMatches("do", 2));
+        assertEquals(List.of("dodgy", "dog", "do"), testing.topMatches("do", 10));
+        assertEquals(List.of(), testing.topMatches("x", 10));
+    }
+
+    @Test
+    void topMatchesWeightedCities() throws IOException {
+        Map<String, Long> weights = new HashMap<>();
+        try (Scanner input = new Scanner(new FileInputStream("data/cities.tsv"))) {
+            while (input.hasNextLine()) {
+                Scanner line = new Scanner(input.nextLine()).useDelimiter("\t");
+                weights.merge(line.next(), line.nextLong(), Math::max);
+            }
+        }
+        Autocomplete testing = createAutocomplete();
+        testing.addAll(weights);
+        for (String prefix : new String[]{"S", "Sea", "San", "New", "Ber", "Z"}) {
+            // Brute force: sort all matches by descending weight and compare the weights of the top 10.
+            List<Long> expected = weights.entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith(prefix))
+                    .map(Map.Entry::getValue)
+                    .sorted(Comparator.reverseOrder())
+                    .limit(10)
+                    .toList();
+            List<Long> actual = new ArrayList<>();
+            for (CharSequence term : testing.topMatches(prefix, 10)) {
+                assertTrue(Autocomplete.isPrefixOf(prefix, term));
+                actual.add(weights.get(term.toString()));
+            }
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void fuzzyTopMatchesSimple() {
+        Map<CharSequence, Integer> terms = Map.of(
+                "Seattle", 9, "Seaside", 5, "Settle", 7, "Shattle", 1, "Boston", 8
+        );
+        TernarySearchTreeAutocomplete testing = new TernarySearchTreeAutocomplete();
+        testing.addAll(terms);
+        assertEquals(List.of("Settle"), testing.fuzzyTopMatches("Saettle", 1, 10));
+        assertEquals(List.of("Seattle", "Settle"), testing.fuzzyTopMatches("Seatle", 1, 10));
+        assertEquals(List.of("Seattle", "Settle", "Shattle"), testing.fuzzyTopMatches("Saettle", 2, 10));
+        assertEquals(List.of("Seattle", "Settle", "Seaside", "Shattle"), testing.fuzzyTopMatches("Sea", 1, 10));
+    }
+
+    @Test
+    void fuzzyTopMatchesWeightedCities() throws IOException {
+        Map<String, Long> weights = new HashMap<>();
+        try (Scanner input = new Scanner(new FileInputStream("data/cities.tsv"))) {
+            while (input.hasNextLine()) {
+                Scanner line = new Scanner(input.nextLine()).useDelimiter("\t");
+                weights.merge(line.next(), line.nextLong(), Math::max);
+            }
+        }
+        TernarySearchTreeAutocomplete testing = new TernarySearchTreeAutocomplete();
+        testing.addAll(weights);
+        String[] prefixes = {"Seatle", "Sna Fr", "Brelin", "Tokoy", "Mosow", "Zzq"};
+        for (int maxEdits = 1; maxEdits <= 2; maxEdits += 1) {
+            for (String prefix : prefixes) {
+                // Brute force: compute the prefix edit distance of every term.
+                int edits = maxEdits;
+                List<Long> expected = weights.entrySet().stream()
+                        .filter(entry -> prefixDistance(prefix, entry.getKey()) <= edits)
+                        .map(Map.Entry::getValue)
+                        .sorted(Comparator.reverseOrder())
+                        .limit(10)
+                        .toList();
+                List<Long> actual = new ArrayList<>();
+                for (CharSequence term : testing.fuzzyTopMatches(prefix, maxEdits, 10)) {
+                    assertTrue(prefixDistance(prefix, term.toString()) <= maxEdits);
+                    actual.add(weights.get(term.toString()));
+                }
+                assertEquals(expected, actual);
+            }
+        }
+    }
+
+    /**
+     * Returns the minimum edit distance between the query and any prefix of the term.
+     */
+    private static int prefixDistance(String query, String term) {
+        int[] row = new int[query.length() + 1];
+        for (int i = 0; i <= query.length(); i += 1) {
+            row[i] = i;
+        }
+        int best = row[query.length()];
+        for (int j = 0; j < term.length(); j += 1) {
+            int[] next = new int[row.length];
+            next[0] = j + 1;
+            for (int i = 1; i <= query.length(); i += 1) {
+                int substitute = row[i - 1] + (query.charAt(i - 1) == term.charAt(j) ? 0 : 1);
+                next[i] = Math.min(substitute, Math.min(row[i], next[i - 1]) + 1);
+            }
+            row = next;
+            best = Math.min(best, row[query.length()]);
+        }
+        return best;
+    }
+
+    @Test
+    void longTermsDoNotOverflowStack() {
+        String term = "a".repeat(100_000);
+        Autocomplete testing = createAutocomplete();
+        testing.addAll(List.of(term, term + "b", "b"));
+        assertEquals(List.of(term, term + "b"), testing.allMatches("aaa"));
+        assertEquals(2, testing.topMatches(term, 5).size());
+    }
 }
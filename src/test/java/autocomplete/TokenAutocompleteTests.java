@@ -0,0 +1,97 @@
+package autocomplete;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link TokenAutocomplete} class.
+ *
+ * @see TokenAutocomplete
+ */
+public class TokenAutocompleteTests {
+    /**
+     * Returns whether every word of the folded query starts some word of the folded term.
+     */
+    private static boolean matches(String query, String term) {
+        List<String> words = List.of(NormalizedAutocomplete.fold(term).split(" "));
+        for (String word : NormalizedAutocomplete.fold(query).split(" ")) {
+            if (words.stream().noneMatch(w -> w.startsWith(word))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    void findsLaterWords() {
+        TokenAutocomplete testing = new TokenAutocomplete();
+        testing.addAll(Map.of(
+                "The Northlake Tavern & Pizza House", 5,
+                "Pizza Hut", 3,
+                "Tavern Law", 4,
+                "Piroshky Piroshky", 1,
+                "Café Pizzeria", 2
+        ));
+        assertEquals(List.of("The Northlake Tavern & Pizza House", "Pizza Hut", "Café Pizzeria"),
+                testing.allMatches("Pizz"));
+        assertEquals(List.of("The Northlake Tavern & Pizza House", "Pizza Hut"), testing.topMatches("pizza", 2));
+        assertEquals(List.of("The Northlake Tavern & Pizza House"), testing.allMatches("tavern pi"));
+        assertEquals(List.of("The Northlake Tavern & Pizza House"), testing.allMatches("pi tav"));
+        assertEquals(List.of("Café Pizzeria"), testing.allMatches("CAFE piz"));
+        assertEquals(4, testing.countMatches("pi p"));
+        assertEquals(0, testing.countMatches("pizza law"));
+        assertEquals(List.of(), testing.allMatches(""));
+        assertEquals(List.of(), testing.allMatches("&"));
+        assertEquals(List.of(), testing.allMatches(null));
+    }
+
+    @Test
+    void compareBruteForce() {
+        Random random = new Random(373);
+        String[] vocabulary = {"the", "north", "northlake", "tavern", "pizza", "pizzeria", "house", "hut", "law",
+                "cafe", "café", "lake", "union", "seattle", "sea"};
+        Map<String, Integer> terms = new HashMap<>();
+        while (terms.size() < 1000) {
+            StringJoiner term = new StringJoiner(random.nextBoolean() ? " " : " - ");
+            for (int i = 1 + random.nextInt(4); i > 0; i -= 1) {
+                term.add(vocabulary[random.nextInt(vocabulary.length)]);
+            }
+            terms.putIfAbsent(term.toString(), terms.size());
+        }
+        TokenAutocomplete testing = new TokenAutocomplete();
+        testing.addAll(terms);
+        for (int i = 0; i < 100; i += 1) {
+            StringJoiner query = new StringJoiner(" ");
+            for (int j = 1 + random.nextInt(3); j > 0; j -= 1) {
+                String word = vocabulary[random.nextInt(vocabulary.length)];
+                query.add(word.substring(0, 1 + random.nextInt(word.length())));
+            }
+            List<String> expected = terms.keySet().stream()
+                    .filter(term -> matches(query.toString(), term))
+                    .sorted(Comparator.comparing((String term) -> -terms.get(term)))
+                    .toList();
+            assertEquals(expected, testing.allMatches(query.toString()));
+            assertEquals(expected.size(), testing.countMatches(query.toString()));
+            assertEquals(expected.subList(0, Math.min(5, expected.size())), testing.topMatches(query.toString(), 5));
+        }
+    }
+
+    @Test
+    void intersectGallops() {
+        int[] small = {3, 500, 999};
+        int[] large = new int[1000];
+        for (int i = 0; i < large.length; i += 1) {
+            large[i] = i;
+        }
+        int[] odd = new int[500];
+        for (int i = 0; i < odd.length; i += 1) {
+            odd[i] = 2 * i + 1;
+        }
+        assertArrayEquals(new int[]{3, 999}, TokenAutocomplete.intersect(new int[][]{small, odd, large}, 10));
+        assertArrayEquals(new int[]{3}, TokenAutocomplete.intersect(new int[][]{small, odd, large}, 1));
+        assertArrayEquals(new int[0], TokenAutocomplete.intersect(new int[][]{new int[0], large}, 10));
+    }
+}
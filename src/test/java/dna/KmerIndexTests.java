@@ -0,0 +1,162 @@
+package dna;
+
+import autocomplete.Autocomplete;
+import autocomplete.Fixtures;
+import autocomplete.TreeSetAutocomplete;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.CharBuffer;
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link KmerIndex} class, using a brute-force scan of the text as the reference implementation.
+ *
+ * @see KmerIndex
+ */
+public class KmerIndexTests {
+    /**
+     * Returns the positions at which the pattern occurs in the text with at most the given number of mismatches.
+     */
+    private static int[] bruteForce(String text, String pattern, int mismatches) {
+        return IntStream.rangeClosed(0, text.length() - pattern.length()).filter(start -> {
+            int count = 0;
+            for (int i = 0; i < pattern.length(); i += 1) {
+                if (text.charAt(start + i) != pattern.charAt(i)) {
+                    count += 1;
+                }
+            }
+            return count <= mismatches;
+        }).toArray();
+    }
+
+    @Test
+    void positionsOfKmers() {
+        KmerIndex index = new KmerIndex("ACGTACGNACGT", 3);
+        assertArrayEquals(new int[]{0, 4, 8}, index.positions("ACG"));
+        assertArrayEquals(new int[]{1, 9}, index.positions("CGT"));
+        assertArrayEquals(new int[0], index.positions("CGN"));
+        assertArrayEquals(new int[0], index.positions("TTT"));
+        assertThrows(IllegalArgumentException.class, () -> index.positions("AC"));
+        assertThrows(IllegalArgumentException.class, () -> new KmerIndex("ACGT", KmerIndex.MAX_K + 1));
+        assertThrows(IllegalArgumentException.class, () -> index.search("ACGTA", 1));
+    }
+
+    @Test
+    void compareRandomPatterns() {
+        Random random = new Random(373);
+        for (int trial = 0; trial < 10; trial += 1) {
+            // Several chunks, so the parallel build must agree at chunk boundaries.
+            String text = Fixtures.randomDna(random, 1 + random.nextInt(150_000));
+            int k = 1 + random.nextInt(KmerIndex.MAX_K);
+            KmerIndex index = new KmerIndex(text, k);
+            for (int i = 0; i < 20; i += 1) {
+                int mismatches = random.nextInt(4);
+                int length = (mismatches + 1) * k + random.nextInt(10);
+                if (length > text.length()) {
+                    continue;
+                }
+                // Mutate an occurrence from the text so that most patterns have approximate matches.
+                int start = random.nextInt(text.length() - length + 1);
+                char[] pattern = text.substring(start, start + length).toCharArray();
+                for (int j = random.nextInt(mismatches + 2); j > 0; j -= 1) {
+                    pattern[random.nextInt(length)] = "ACGT".charAt(random.nextInt(4));
+                }
+                String query = new String(pattern);
+                assertArrayEquals(bruteForce(text, query, mismatches), index.search(query, mismatches));
+            }
+        }
+    }
+
+    @Test
+    void repetitiveText() {
+        String text = "A".repeat(1000) + "C" + "A".repeat(1000);
+        KmerIndex index = new KmerIndex(text, 8);
+        assertEquals(2 * (1000 - 7), index.positions("A".repeat(8)).length);
+        assertArrayEquals(bruteForce(text, "A".repeat(20), 0), index.search("A".repeat(20), 0));
+        assertArrayEquals(bruteForce(text, "A".repeat(20), 1), index.search("A".repeat(20), 1));
+        assertArrayEquals(bruteForce(text, "AAAAAAAAAGAAAAAAAA", 1), index.search("AAAAAAAAAGAAAAAAAA", 1));
+        assertArrayEquals(new int[0], index.search("C".repeat(16), 1));
+    }
+
+    @Nested
+    @Disabled
+    class RuntimeExperiments {
+        /**
+         * Length of the random DNA text.
+         */
+        private static final int SIZE = 1_000_000;
+        /**
+         * Number of queries to time.
+         */
+        private static final int QUERIES = 10_000;
+        /**
+         * Lengths of the query patterns.
+         */
+        private static final int[] LENGTHS = {12, 24, 48};
+
+        /**
+         * Compares a {@link TreeSetAutocomplete} of every suffix, the approach previously used by {@code DNASearch},
+         * against a {@link KmerIndex} with k = 12. Prints the build milliseconds of each, then comma-separated rows of
+         * pattern length and the total milliseconds of exact queries with the tree set, exact queries with the k-mer
+         * index, and queries with the k-mer index allowing one mismatch for each pattern length.
+         */
+        @Test
+        void buildAndQueryTime() {
+            Random random = new Random(373);
+            String text = Fixtures.randomDna(random, SIZE);
+            long start = System.nanoTime();
+            Autocomplete treeSet = new TreeSetAutocomplete();
+            treeSet.addAll(new AbstractList<>() {
+                @Override
+                public CharSequence get(int index) {
+                    return CharBuffer.wrap(text, index, text.length());
+                }
+
+                @Override
+                public int size() {
+                    return text.length();
+                }
+            });
+            long treeSetMillis = (System.nanoTime() - start) / 1_000_000;
+            start = System.nanoTime();
+            KmerIndex index = new KmerIndex(text, 12);
+            long kmerMillis = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("build," + treeSetMillis + "," + kmerMillis);
+
+            for (int length : LENGTHS) {
+                String[] patterns = new String[QUERIES];
+                for (int i = 0; i < QUERIES; i += 1) {
+                    int offset = random.nextInt(text.length() - length + 1);
+                    patterns[i] = text.substring(offset, offset + length);
+                }
+                start = System.nanoTime();
+                int expected = 0;
+                for (String pattern : patterns) {
+                    expected += treeSet.countMatches(pattern);
+                }
+                long treeSetQueryMillis = (System.nanoTime() - start) / 1_000_000;
+                start = System.nanoTime();
+                int actual = 0;
+                for (String pattern : patterns) {
+                    actual += index.search(pattern, 0).length;
+                }
+                long exactMillis = (System.nanoTime() - start) / 1_000_000;
+                assertEquals(expected, actual);
+                long approximateMillis = -1;
+                if (length >= 2 * index.k()) {
+                    start = System.nanoTime();
+                    for (String pattern : patterns) {
+                        index.search(pattern, 1);
+                    }
+                    approximateMillis = (System.nanoTime() - start) / 1_000_000;
+                }
+                System.out.println(length + "," + treeSetQueryMillis + "," + exactMillis + "," + approximateMillis);
+            }
+        }
+    }
+}
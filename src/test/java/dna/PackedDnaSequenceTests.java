@@ -0,0 +1,91 @@
+package dna;
+
+import autocomplete.Fixtures;
+import autocomplete.SuffixArrayAutocomplete;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link PackedDnaSequence} class.
+ *
+ * @see PackedDnaSequence
+ */
+public class PackedDnaSequenceTests {
+    /**
+     * Writes the given text to a temporary file and returns the packed sequence converted from it.
+     */
+    private static PackedDnaSequence pack(String text) throws IOException {
+        Path input = Files.createTempFile("dna", ".fasta");
+        Path output = Files.createTempFile("dna", ".2bit");
+        input.toFile().deleteOnExit();
+        output.toFile().deleteOnExit();
+        Files.writeString(input, text);
+        PackedDnaSequence.convert(input, output);
+        return PackedDnaSequence.open(output);
+    }
+
+    @Test
+    void convertFasta() throws IOException {
+        String fasta = """
+                >chr1 example
+                ACGTacgt
+                ; comment
+                GGNNT
+                A
+                """;
+        PackedDnaSequence dna = pack(fasta);
+        assertEquals(14, dna.length());
+        assertEquals("ACGTACGTGGAATA", dna.toString());
+        assertEquals('G', dna.charAt(8));
+        assertEquals("GTGGA", dna.subSequence(6, 11).toString());
+        assertEquals("GA", dna.subSequence(6, 11).subSequence(3, 5).toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> dna.charAt(14));
+        assertThrows(IndexOutOfBoundsException.class, () -> dna.subSequence(3, 15));
+    }
+
+    @Test
+    void compareRandomText() throws IOException {
+        Random random = new Random(373);
+        for (int length : new int[]{0, 1, 3, 4, 5, 1000, 1001}) {
+            String text = Fixtures.randomDna(random, length);
+            PackedDnaSequence dna = pack(text);
+            assertEquals(text.length(), dna.length());
+            assertEquals(text, dna.toString());
+            for (int i = 0; i < 20 && length > 0; i += 1) {
+                int begin = random.nextInt(length + 1);
+                int end = begin + random.nextInt(length - begin + 1);
+                assertEquals(text.substring(begin, end), dna.subSequence(begin, end).toString());
+            }
+        }
+    }
+
+    @Test
+    void suffixArrayOverPackedSequence() throws IOException {
+        Random random = new Random(373);
+        String text = Fixtures.randomDna(random, 5000);
+        SuffixArrayAutocomplete reference = new SuffixArrayAutocomplete(text);
+        SuffixArrayAutocomplete testing = new SuffixArrayAutocomplete(pack(text));
+        for (int i = 0; i < 100; i += 1) {
+            String pattern = Fixtures.randomDna(random, 1 + random.nextInt(8));
+            assertEquals(reference.countMatches(pattern), testing.countMatches(pattern));
+            assertArrayEquals(reference.locate(pattern), testing.locate(pattern));
+        }
+        int start = random.nextInt(text.length());
+        String pattern = text.substring(start, start + 1 + random.nextInt(text.length() - start));
+        assertEquals(text.substring(start), testing.allMatches(pattern).get(0).toString());
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path file = Files.createTempFile("dna", ".2bit");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, "ACGTACGT");
+        assertThrows(IOException.class, () -> PackedDnaSequence.open(file));
+    }
+}
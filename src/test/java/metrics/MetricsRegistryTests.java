@@ -0,0 +1,75 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link MetricsRegistry} and {@link LatencyHistogram} classes.
+ *
+ * @see MetricsRegistry
+ * @see LatencyHistogram
+ */
+public class MetricsRegistryTests {
+    @Test
+    void bucketBoundaries() {
+        assertEquals(0, LatencyHistogram.bucketOf(0));
+        assertEquals(0, LatencyHistogram.bucketOf(1024));
+        assertEquals(1, LatencyHistogram.bucketOf(1025));
+        assertEquals(1, LatencyHistogram.bucketOf(2048));
+        assertEquals(LatencyHistogram.BUCKETS, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i += 1) {
+            long bound = Math.round(LatencyHistogram.upperBoundSeconds(i) * 1e9);
+            assertEquals(i, LatencyHistogram.bucketOf(bound));
+            assertEquals(i + 1, LatencyHistogram.bucketOf(bound + 1));
+        }
+    }
+
+    @Test
+    void histogramCounts() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(500);
+        histogram.record(1500);
+        histogram.record(1600);
+        histogram.record(-1);
+        long[] counts = histogram.counts();
+        assertEquals(2, counts[0]);
+        assertEquals(2, counts[1]);
+        assertEquals(4, histogram.count());
+        assertEquals(3600, histogram.sumNanos());
+    }
+
+    @Test
+    void scrapeFormat() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("requests_total", "Requests.", "endpoint", "/search").add(3);
+        registry.histogram("stage_seconds", "Stages.", "stage", "a\"b").record(2000);
+        String text = registry.scrape();
+        assertTrue(text.contains("# TYPE requests_total counter\n"));
+        assertTrue(text.contains("requests_total{endpoint=\"/search\"} 3\n"));
+        assertTrue(text.contains("# TYPE stage_seconds histogram\n"));
+        assertTrue(text.contains("stage_seconds_bucket{stage=\"a\\\"b\",le=\"1.024E-6\"} 0\n"));
+        assertTrue(text.contains("stage_seconds_bucket{stage=\"a\\\"b\",le=\"2.048E-6\"} 1\n"));
+        assertTrue(text.contains("stage_seconds_bucket{stage=\"a\\\"b\",le=\"+Inf\"} 1\n"));
+        assertTrue(text.contains("stage_seconds_sum{stage=\"a\\\"b\"} 2.0E-6\n"));
+        assertTrue(text.contains("stage_seconds_count{stage=\"a\\\"b\"} 1\n"));
+    }
+
+    @Test
+    void sameNameAndLabelsShareMetric() {
+        MetricsRegistry registry = new MetricsRegistry();
+        assertSame(registry.counter("c", "", "k", "v"), registry.counter("c", "", "k", "v"));
+        assertSame(registry.histogram("h", ""), registry.histogram("h", ""));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("c", "", "k"));
+    }
+
+    @Test
+    void serverTimingHeader() {
+        MetricsRegistry registry = new MetricsRegistry();
+        ServerTiming timing = new ServerTiming(registry, "/map");
+        timing.stop("astar", timing.start());
+        timing.stop("total", timing.start());
+        assertTrue(timing.toString().matches("astar;dur=\\d+\\.\\d{3}, total;dur=\\d+\\.\\d{3}"));
+        assertEquals(1, registry.histogram(ServerTiming.METRIC, "", "endpoint", "/map", "stage", "astar").count());
+    }
+}